@@ -0,0 +1,24 @@
+package annotations.queries;
+
+/**
+ * Pairs a GET endpoint loading a single item by its id with an endpoint of the same controller loading a list of items
+ * by their ids. Calls to the single item endpoint are collected on the client and sent as one batch request.
+ */
+public @interface BatchedBy {
+    /**
+     * Name of the batch endpoint, which takes the list of ids as its only parameter or as its body.
+     */
+    String value();
+
+    /**
+     * Field of the returned items holding their id.
+     */
+    String idField() default "id";
+
+    /**
+     * Milliseconds calls are collected before the batch request is sent, 0 collects the calls of the current tick.
+     */
+    int window() default 0;
+
+    int maxBatchSize() default 100;
+}
@@ -0,0 +1,16 @@
+package annotations.queries;
+
+/**
+ * Enables (or disables) the client side cache of GET endpoints for a controller or a single method. Negative values
+ * fall back to the defaults configured in the plugin.
+ */
+public @interface CachedQuery {
+    boolean enabled() default true;
+
+    /**
+     * Time in milliseconds a result is kept after the request completed.
+     */
+    long ttl() default -1;
+
+    int maxEntries() default -1;
+}
@@ -0,0 +1,13 @@
+package annotations.queries;
+
+/**
+ * Parses, validates and revives the responses of an endpoint, or of all endpoints of a controller, in a Web Worker once
+ * they exceed the threshold, such that large responses do not block the UI thread.
+ */
+public @interface OffloadDecoding {
+    /**
+     * Minimum size of a response in bytes to be decoded in the worker, negative values fall back to the threshold
+     * configured in the plugin.
+     */
+    int threshold() default -1;
+}
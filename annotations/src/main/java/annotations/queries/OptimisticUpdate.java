@@ -0,0 +1,12 @@
+package annotations.queries;
+
+/**
+ * Lists the GET queries a mutation updates optimistically, in addition to the queries of its own controller with the
+ * same url. The variables of each query have to be present in the mutation.
+ */
+public @interface OptimisticUpdate {
+    /**
+     * The queries as {@code Controller.method}, e.g. {@code UserController.getCurrentUser}.
+     */
+    String[] value();
+}
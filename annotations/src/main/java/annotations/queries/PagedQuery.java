@@ -1,4 +1,15 @@
 package annotations.queries;
 
+/**
+ * Marks a GET endpoint as paged. A positive {@code maxPages} limits the pages kept by an infinite query, the oldest page
+ * in the direction of scrolling is dropped.
+ */
 public @interface PagedQuery {
+    int maxPages() default 0;
+
+    /**
+     * Allows fetching the previous pages again, e.g. after they were dropped by {@code maxPages}. Cursor paged endpoints
+     * need a {@code @PreviousCursor} field in their response.
+     */
+    boolean bidirectional() default false;
 }
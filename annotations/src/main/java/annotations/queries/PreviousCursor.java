@@ -0,0 +1,4 @@
+package annotations.queries;
+
+public @interface PreviousCursor {
+}
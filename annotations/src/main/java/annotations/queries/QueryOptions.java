@@ -0,0 +1,21 @@
+package annotations.queries;
+
+/**
+ * Client side cache hints for the queries of a controller or a single method. Negative times keep the defaults of the
+ * query library.
+ */
+public @interface QueryOptions {
+    /**
+     * Time in milliseconds after which the data is considered stale.
+     */
+    long staleTime() default -1;
+
+    /**
+     * Time in milliseconds after which unused data is garbage collected.
+     */
+    long gcTime() default -1;
+
+    boolean refetchOnWindowFocus() default true;
+
+    boolean structuralSharing() default true;
+}
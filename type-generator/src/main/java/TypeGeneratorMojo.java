@@ -1,40 +1,51 @@
 
 import backend.EndPointParser;
 import backend.spring.SpringEndpointParser;
-import frontend.api.EndpointWriter;
-import frontend.api.angular.AngularWriter;
-import frontend.api.reactQuery.ReactQueryWriter;
-import frontend.TypeScriptFile;
-import frontend.types.TypeWriter;
-import frontend.types.typescript.TypeScriptWriter;
-import frontend.types.zod.ZodWriter;
+import frontend.OutputReport;
+import frontend.OutputWriter;
+import loadtest.GatlingWriter;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.NotFoundException;
 import model.TypeContext;
 import model.Endpoint;
+import model.ModelSnapshot;
+import model.QueryCache;
 import model.config.Backend;
+import model.config.BudgetViolation;
 import model.config.FrontendAPI;
 import model.config.FrontendTypes;
+import model.config.OutputFormat;
+import model.config.OutputLayout;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
 
 
-@Mojo(name = "type-generator", defaultPhase = LifecyclePhase.PROCESS_CLASSES)
+@Mojo(name = "type-generator", defaultPhase = LifecyclePhase.PROCESS_CLASSES, threadSafe = true)
 public class TypeGeneratorMojo extends AbstractMojo {
 
     @Parameter(defaultValue = "${project}", required = true, readonly = true)
     MavenProject project;
 
+    @Parameter(defaultValue = "${session}", required = true, readonly = true)
+    MavenSession session;
+
+    @Component
+    MavenProjectHelper projectHelper;
+
     @Parameter(property = "subModules")
     String subModules;
 
@@ -53,77 +64,286 @@ public class TypeGeneratorMojo extends AbstractMojo {
     @Parameter(property = "useStringAsDate", defaultValue = "false")
     boolean useStringAsDate = false;
 
+    @Parameter(property = "cacheQueries", defaultValue = "false")
+    boolean cacheQueries = false;
+
+    @Parameter(property = "cacheTtl", defaultValue = "30000")
+    long cacheTtl = 30000;
+
+    @Parameter(property = "cacheMaxEntries", defaultValue = "100")
+    int cacheMaxEntries = 100;
+
+    @Parameter(property = "cacheableStaleTime", defaultValue = "-1")
+    long cacheableStaleTime = -1;
+
+    @Parameter(property = "responseValidationRate", defaultValue = "0")
+    double responseValidationRate = 0;
+
+    @Parameter(property = "responseValidationDevOnly", defaultValue = "false")
+    boolean responseValidationDevOnly = false;
+
+    @Parameter(property = "conditionalRequests", defaultValue = "false")
+    boolean conditionalRequests = false;
+
+    @Parameter(property = "etagMaxEntries", defaultValue = "500")
+    int etagMaxEntries = 500;
+
+    @Parameter(property = "offloadThreshold", defaultValue = "262144")
+    int offloadThreshold = 262144;
+
+    @Parameter(property = "writeSnapshot", defaultValue = "false")
+    boolean writeSnapshot = false;
+
+    @Parameter(property = "snapshots")
+    String snapshots;
+
+    @Parameter(property = "outputLayout", defaultValue = "PerType")
+    OutputLayout outputLayout = OutputLayout.PerType;
+
+    @Parameter(property = "outputFormat", defaultValue = "TypeScript")
+    OutputFormat outputFormat = OutputFormat.TypeScript;
+
+    @Parameter(property = "packageName")
+    String packageName;
+
+    @Parameter(property = "reportFile", defaultValue = "${project.build.directory}/type-report.txt")
+    String reportFile;
+
+    @Parameter(property = "budgetFileSize", defaultValue = "0")
+    long budgetFileSize = 0;
+
+    @Parameter(property = "budgetFieldCount", defaultValue = "0")
+    int budgetFieldCount = 0;
+
+    @Parameter(property = "budgetNestingDepth", defaultValue = "0")
+    int budgetNestingDepth = 0;
+
+    @Parameter(property = "budgetImportFanOut", defaultValue = "0")
+    int budgetImportFanOut = 0;
+
+    @Parameter(property = "budgetEndpointTypes", defaultValue = "0")
+    int budgetEndpointTypes = 0;
+
+    @Parameter(property = "budgetViolation", defaultValue = "Warn")
+    BudgetViolation budgetViolation = BudgetViolation.Warn;
+
+    @Parameter(property = "loadTestDirectory")
+    String loadTestDirectory;
+
+    @Parameter(property = "loadTestPackage", defaultValue = "loadtest")
+    String loadTestPackage = "loadtest";
+
 
     @Override
     public void execute() throws MojoExecutionException {
         getLog().info("Type Generator Plugin");
 
-        ClassPool classPool = ClassPool.getDefault();
-        List<String> classFiles = new ArrayList<>();
+        // an own pool per execution, the default pool is shared by all modules of a parallel build
+        ClassPool classPool = new ClassPool(true);
 
         if(outputDir == null || outputDir.isBlank()){
             throw new MojoExecutionException("Output directory must not be empty");
         }
         try {
+            TypeContext context = new TypeContext(classPool, useStringAsDate);
+            context.setDefaultQueryCache(new QueryCache(cacheQueries, cacheTtl, cacheMaxEntries));
+            context.setCacheableStaleTime(cacheableStaleTime);
+            context.setResponseValidationRate(responseValidationRate);
+            context.setResponseValidationDevOnly(responseValidationDevOnly);
+            context.setConditionalRequests(conditionalRequests);
+            context.setEtagMaxEntries(etagMaxEntries);
+            context.setOffloadThreshold(offloadThreshold);
+
+            EndPointParser endPointParser = switch (backend) {
+                case Spring -> new SpringEndpointParser(context);
+            };
+
+            List<Endpoint> endpoints = new ArrayList<>();
+
             if (subModules == null || subModules.isEmpty()) {
-                classFiles.addAll(getClassFiles(new File(project.getBuild().getOutputDirectory()), project.getBuild().getOutputDirectory() + "/"));
-                classPool.insertClassPath(project.getBuild().getOutputDirectory());
+                File classesDir = new File(project.getBuild().getOutputDirectory());
+                File snapshotFile = new File(project.getBuild().getDirectory(), ModelSnapshot.FILE_NAME);
+                classPool.insertClassPath(classesDir.getPath());
+                ModelSnapshot reusable = writeSnapshot ? reusableSnapshot(snapshotFile, classesDir, context) : null;
+                if (reusable != null) {
+                    getLog().info("Reusing up to date model snapshot " + snapshotFile);
+                    reusable.mergeInto(context, endpoints);
+                } else {
+                    List<Endpoint> parsed = parse(classesDir, classPool, endPointParser);
+                    if (writeSnapshot) {
+                        ModelSnapshot.of(context, parsed).write(snapshotFile);
+                    }
+                    endpoints.addAll(parsed);
+                }
+                if (writeSnapshot) {
+                    projectHelper.attachArtifact(project, ModelSnapshot.ARTIFACT_TYPE, ModelSnapshot.CLASSIFIER, snapshotFile);
+                }
             } else {
-                String[] moduleArray = subModules.split(",");
-                for (String module : moduleArray) {
+                Map<String, MavenProject> modules = new LinkedHashMap<>();
+                for (String module : subModules.split(",")) {
                     String stripped = module.strip();
                     if(project.getModules().contains(stripped)) {
-                        getLog().info("Scanning module " + stripped);
-                        // TODO this should not be hardcoded
-                        String outputPath = project.getFile().getParentFile().getAbsoluteFile() + "/" + module + "/target/classes/";
-                        classFiles.addAll(getClassFiles(new File(outputPath), outputPath));
-                        classPool.insertClassPath(outputPath);
+                        MavenProject moduleProject = findModule(stripped);
+                        modules.put(stripped, moduleProject);
+                        classPool.insertClassPath(moduleProject.getBuild().getOutputDirectory());
                     } else {
                         throw new RuntimeException("Module " + stripped + " not found in maven project");
                     }
                 }
-            }
 
-            TypeContext context = new TypeContext(classPool, useStringAsDate);
+                for (Map.Entry<String, MavenProject> module : modules.entrySet()) {
+                    File classesDir = new File(module.getValue().getBuild().getOutputDirectory());
+                    File snapshotFile = new File(module.getValue().getBuild().getDirectory(), ModelSnapshot.FILE_NAME);
+                    ModelSnapshot reusable = reusableSnapshot(snapshotFile, classesDir, context);
+                    if (reusable != null) {
+                        getLog().info("Reusing model snapshot of module " + module.getKey());
+                        reusable.mergeInto(context, endpoints);
+                    } else {
+                        getLog().info("Scanning module " + module.getKey());
+                        endpoints.addAll(parse(classesDir, classPool, endPointParser));
+                    }
+                }
+            }
 
-            EndPointParser endPointParser = switch (backend) {
-                case Spring -> new SpringEndpointParser(context);
-            };
+            if (snapshots != null && !snapshots.isBlank()) {
+                for (String snapshot : snapshots.split(",")) {
+                    File snapshotFile = new File(snapshot.strip());
+                    ModelSnapshot modelSnapshot = ModelSnapshot.read(snapshotFile);
+                    if (!modelSnapshot.isCompatible(context)) {
+                        getLog().warn("Model snapshot " + snapshotFile + " was created with different options");
+                    }
+                    modelSnapshot.mergeInto(context, endpoints);
+                }
+            }
 
-            List<Endpoint> endpoints = new ArrayList<>();
+            if(context.validatesResponses() && frontendTypes == FrontendTypes.Typescript) {
+                System.err.println("Response validation requires frontendTypes Zod or Validator, responses will not be validated");
+            }
 
-            for (String className : classFiles) {
-                CtClass clazz = classPool.getCtClass(className);
-                endpoints.addAll(endPointParser.parseClass(clazz));
+            if(outputFormat == OutputFormat.TypeDeclarations && frontendTypes != FrontendTypes.Typescript) {
+                System.err.println("Only plain types can be emitted as declarations, the output is written as TypeScript for frontendTypes " + frontendTypes);
             }
 
+            OutputReport report = new OutputReport(context);
             String[] dirs = outputDir.split(",");
+            OutputWriter outputWriter = new OutputWriter(context, frontendTypes, frontendAPI, outputLayout, outputFormat);
 
             for(String dir: dirs) {
-                String dirName = dir.strip();
-                if (!dirName.endsWith("/")) {
-                    dirName += "/";
+                String dirName = OutputWriter.dirName(dir);
+                outputWriter.write(dirName, endpoints, report);
+                if (OutputWriter.format(frontendTypes, outputFormat) == OutputFormat.TypeDeclarations) {
+                    writePackageJson(dirName);
                 }
+            }
+            report.addEndpoints(endpoints);
+            checkReport(report);
 
-                TypeWriter typeWriter = switch (frontendTypes) {
-                    case Typescript -> new TypeScriptWriter(dirName);
-                    case Zod -> new ZodWriter(dirName);
-                };
+            if (loadTestDirectory != null && !loadTestDirectory.isBlank()) {
+                new GatlingWriter(context, loadTestDirectory, loadTestPackage).write(endpoints);
+            }
 
-                EndpointWriter endpointWriter = switch (frontendAPI) {
-                    case ReactQuery -> new ReactQueryWriter(context, dirName);
-                    case Angular -> new AngularWriter(context, dirName);
-                };
+        } catch (NotFoundException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-                List<TypeScriptFile> files = new ArrayList<>();
-                files.addAll(typeWriter.printAllTypes(context));
-                files.addAll(endpointWriter.printAllEndPoints(endpoints));
-                files.forEach(TypeScriptFile::write);
+    /**
+     * Writes the report with the changes since the previous run and fails the build if configured and a budget is
+     * exceeded.
+     */
+    private void checkReport(OutputReport report) throws IOException, MojoExecutionException {
+        List<String> changes = List.of();
+        if (reportFile != null && !reportFile.isBlank()) {
+            File file = new File(reportFile);
+            if (file.isFile()) {
+                changes = report.diff(OutputReport.read(file));
+                getLog().info(changes.isEmpty() ? "Generated files did not change" : "Changes of the generated files since the previous run:");
+                changes.forEach(change -> getLog().info("  " + change));
             }
+            report.write(file, changes);
+        }
 
-        } catch (NotFoundException e) {
-            throw new RuntimeException(e);
+        OutputReport.Budgets budgets = new OutputReport.Budgets(budgetFileSize, budgetFieldCount, budgetNestingDepth, budgetImportFanOut, budgetEndpointTypes);
+        List<String> violations = report.violations(budgets);
+        violations.forEach(violation -> getLog().warn(violation));
+        if (!violations.isEmpty() && budgetViolation == BudgetViolation.Fail) {
+            throw new MojoExecutionException(violations.size() + " generated files or endpoints exceed their budget");
+        }
+    }
+
+    /**
+     * The precompiled types are exported with their declarations, all other modules as TypeScript sources, which the
+     * frontend build compiles as part of the linked workspace package.
+     */
+    private void writePackageJson(String dirName) throws IOException {
+        String name = packageName == null || packageName.isBlank() ? project.getArtifactId() + "-api" : packageName;
+        String index = Files.isRegularFile(Paths.get(dirName, "types", "index.d.ts"))
+                ? """
+                  "types": "./types/index.d.ts",
+                  "main": "./types/index.js",
+                """
+                : "";
+        String packageJson = """
+                {
+                  "name": "%s",
+                  "version": "0.0.0",
+                  "private": true,
+                  "type": "module",
+                  "sideEffects": false,
+                %s  "exports": {
+                    "./types/*": {
+                      "types": "./types/*.d.ts",
+                      "default": "./types/*.js"
+                    },
+                    "./*": "./*.ts"
+                  }
+                }
+                """.formatted(name, index);
+        Files.writeString(Paths.get(dirName, "package.json"), packageJson);
+    }
+
+    private List<Endpoint> parse(File classesDir, ClassPool classPool, EndPointParser endPointParser) throws NotFoundException {
+        List<Endpoint> endpoints = new ArrayList<>();
+        String basePath = classesDir.getAbsolutePath() + "/";
+        for (String className : getClassFiles(classesDir.getAbsoluteFile(), basePath)) {
+            CtClass clazz = classPool.getCtClass(className);
+            endpoints.addAll(endPointParser.parseClass(clazz));
+        }
+        return endpoints;
+    }
+
+    /**
+     * @return The snapshot if it is newer than the classes and was created with the same options, null otherwise
+     */
+    private ModelSnapshot reusableSnapshot(File snapshotFile, File classesDir, TypeContext context) {
+        if (!ModelSnapshot.isUpToDate(snapshotFile, classesDir)) {
+            return null;
         }
+        try {
+            ModelSnapshot snapshot = ModelSnapshot.read(snapshotFile);
+            return snapshot.isCompatible(context) ? snapshot : null;
+        } catch (RuntimeException e) {
+            getLog().warn(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolves a module from the reactor to respect its configured output directories, falling back to the default
+     * layout if the module is not part of the build.
+     */
+    private MavenProject findModule(String module) throws IOException {
+        File baseDir = new File(project.getBasedir(), module).getCanonicalFile();
+        for (MavenProject reactorProject : session.getProjects()) {
+            if (reactorProject.getBasedir().getCanonicalFile().equals(baseDir)) {
+                return reactorProject;
+            }
+        }
+
+        MavenProject fallback = new MavenProject();
+        fallback.getBuild().setDirectory(baseDir + "/target");
+        fallback.getBuild().setOutputDirectory(baseDir + "/target/classes");
+        return fallback;
     }
 
     public List<String> getClassFiles(File file, String basePath) {
@@ -133,7 +353,10 @@ public class TypeGeneratorMojo extends AbstractMojo {
 
         if (file.isDirectory()) {
             List<String> paths = new ArrayList<>();
-            for (File child : Objects.requireNonNull(file.listFiles())) {
+            File[] children = Objects.requireNonNull(file.listFiles());
+            // sorted, as the first parsed class wins if simple names collide
+            Arrays.sort(children);
+            for (File child : children) {
                 paths.addAll(getClassFiles(child, basePath));
             }
             return paths;
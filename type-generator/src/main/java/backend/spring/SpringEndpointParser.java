@@ -1,26 +1,40 @@
 package backend.spring;
 
+import annotations.queries.BatchedBy;
+import annotations.queries.CachedQuery;
+import annotations.queries.OffloadDecoding;
+import annotations.queries.OptimisticUpdate;
+import annotations.queries.CursorParam;
 import annotations.queries.PageParam;
 import annotations.queries.PageSizeParam;
 import annotations.queries.PagedQuery;
+import annotations.queries.QueryOptions;
 import backend.EndPointParser;
 import javassist.CtClass;
 import javassist.CtMethod;
 import javassist.bytecode.LocalVariableAttribute;
 import javassist.bytecode.MethodInfo;
 import lombok.SneakyThrows;
+import model.Batch;
 import model.PagedEndpoint;
+import model.QueryCache;
+import model.QueryHints;
+import model.StreamFormat;
 import model.TypeContext;
 import model.Endpoint;
 import backend.TypeParser;
 import model.types.*;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public class SpringEndpointParser implements EndPointParser {
     private final TypeParser typeParser;
@@ -34,6 +48,8 @@ public class SpringEndpointParser implements EndPointParser {
             "jakarta.servlet.http.HttpServletResponse"
     );
 
+    private static final String CACHEABLE = "org.springframework.cache.annotation.Cacheable";
+
     public SpringEndpointParser(TypeContext context) {
         this.typeParser = new SpringTypeParser(context);
         this.context = context;
@@ -50,19 +66,74 @@ public class SpringEndpointParser implements EndPointParser {
         List<Endpoint> list = new ArrayList<>();
         if(requestMapping != null && requestMapping.value().length > 0) {
             for(String prefix: requestMapping.value()) {
-                for (CtMethod method : clazz.getMethods()) {
-                    parseMethod(method, list, prefix);
-                }
+                list.addAll(parseMethods(clazz, prefix));
             }
         } else {
-            for (CtMethod method : clazz.getMethods()) {
-                parseMethod(method, list, "");
-            }
+            list.addAll(parseMethods(clazz, ""));
         }
 
         return list;
     }
 
+    private List<Endpoint> parseMethods(CtClass clazz, String prefix) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (CtMethod method : clazz.getMethods()) {
+            parseMethod(method, endpoints, prefix);
+        }
+        linkBatches(clazz, endpoints);
+        return endpoints;
+    }
+
+    @SneakyThrows
+    private void linkBatches(CtClass clazz, List<Endpoint> endpoints) {
+        for (CtMethod method : clazz.getMethods()) {
+            BatchedBy batchedBy = (BatchedBy) method.getAnnotation(BatchedBy.class);
+            if(batchedBy == null) {
+                continue;
+            }
+
+            Optional<Endpoint> batchEndpoint = endpoints.stream().filter(e -> e.getName().equals(batchedBy.value())).findFirst();
+            if(batchEndpoint.isEmpty()) {
+                System.err.println("Batch endpoint " + batchedBy.value() + " of " + clazz.getSimpleName() + "." + method.getName() + " not found");
+                continue;
+            }
+
+            for (Endpoint endpoint : endpoints.stream().filter(e -> e.getName().equals(method.getName())).toList()) {
+                Batch batch = batch(endpoint, batchEndpoint.get(), batchedBy);
+                if(batch != null) {
+                    endpoint.setBatch(batch);
+                }
+            }
+        }
+    }
+
+    private Batch batch(Endpoint endpoint, Endpoint batchEndpoint, BatchedBy batchedBy) {
+        String name = endpoint.getClassName() + "." + endpoint.getName();
+        if(!endpoint.getHttpMethod().equals(HttpMethod.GET) || endpoint instanceof PagedEndpoint || endpoint.getAllVariables().size() != 1) {
+            System.err.println("Only unpaged GET endpoints with a single id variable may be batched in " + name);
+            return null;
+        }
+
+        if(!(batchEndpoint.getReturnType() instanceof ArrayType arr) || !arr.getSubType().equals(endpoint.getReturnType())) {
+            System.err.println("Batch endpoint " + batchEndpoint.getName() + " of " + name + " must return a list of " + endpoint.getReturnType());
+            return null;
+        }
+
+        Field idsVariable;
+        if(batchEndpoint.getBody() instanceof ArrayType && batchEndpoint.getAllVariables().isEmpty()
+                && !batchEndpoint.getHttpMethod().equals(HttpMethod.GET) && !batchEndpoint.getHttpMethod().equals(HttpMethod.DELETE)) {
+            idsVariable = null;
+        } else if(batchEndpoint.getBody() == null && batchEndpoint.getUrlArgs().isEmpty() && batchEndpoint.getParams().size() == 1
+                && batchEndpoint.getParams().get(0).getType() instanceof ArrayType) {
+            idsVariable = batchEndpoint.getParams().get(0);
+        } else {
+            System.err.println("Batch endpoint " + batchEndpoint.getName() + " of " + name + " must take the list of ids as its only parameter or as body");
+            return null;
+        }
+
+        return new Batch(batchEndpoint, endpoint.getAllVariables().get(0), idsVariable, batchedBy.idField(), batchedBy.window(), batchedBy.maxBatchSize());
+    }
+
     @SneakyThrows
     public void parseMethod(CtMethod method, List<Endpoint> endpoints, String prefix) {
         GetMapping getMapping = (GetMapping) method.getAnnotation(GetMapping.class);
@@ -75,46 +146,46 @@ public class SpringEndpointParser implements EndPointParser {
 
         if(getMapping != null) {
             for (String path : getMapping.value()) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.GET, className, path));
+                endpoints.add(endpoint(method, prefix, HttpMethod.GET, className, path, getMapping.produces(), getMapping.consumes()));
             }
             if (getMapping.value().length == 0) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.GET, className, null));
+                endpoints.add(endpoint(method, prefix, HttpMethod.GET, className, null, getMapping.produces(), getMapping.consumes()));
             }
         }
 
         if(postMapping != null) {
             for (String path : postMapping.value()) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.POST, className, path));
+                endpoints.add(endpoint(method, prefix, HttpMethod.POST, className, path, postMapping.produces(), postMapping.consumes()));
             }
             if (postMapping.value().length == 0) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.POST, className, null));
+                endpoints.add(endpoint(method, prefix, HttpMethod.POST, className, null, postMapping.produces(), postMapping.consumes()));
             }
         }
 
         if(putMapping != null) {
             for (String path : putMapping.value()) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.PUT, className, path));
+                endpoints.add(endpoint(method, prefix, HttpMethod.PUT, className, path, putMapping.produces(), putMapping.consumes()));
             }
             if (putMapping.value().length == 0) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.PUT, className, null));
+                endpoints.add(endpoint(method, prefix, HttpMethod.PUT, className, null, putMapping.produces(), putMapping.consumes()));
             }
         }
 
         if(patchMapping != null) {
             for (String path : patchMapping.value()) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.PATCH, className, path));
+                endpoints.add(endpoint(method, prefix, HttpMethod.PATCH, className, path, patchMapping.produces(), patchMapping.consumes()));
             }
             if (patchMapping.value().length == 0) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.PATCH, className, null));
+                endpoints.add(endpoint(method, prefix, HttpMethod.PATCH, className, null, patchMapping.produces(), patchMapping.consumes()));
             }
         }
 
         if(deleteMapping != null) {
             for (String path : deleteMapping.value()) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.DELETE, className, path));
+                endpoints.add(endpoint(method, prefix, HttpMethod.DELETE, className, path, deleteMapping.produces(), deleteMapping.consumes()));
             }
             if (deleteMapping.value().length == 0) {
-                endpoints.add(endpoint(method, prefix, HttpMethod.DELETE, className, null));
+                endpoints.add(endpoint(method, prefix, HttpMethod.DELETE, className, null, deleteMapping.produces(), deleteMapping.consumes()));
             }
         }
     }
@@ -170,6 +241,18 @@ public class SpringEndpointParser implements EndPointParser {
                             System.err.println("Unused @PageSizeParam annotation encountered in " + endpoint.getClassName() + "." + endpoint.getName());
                         }
                     }
+
+                    if(Arrays.stream(method.getParameterAnnotations()[i]).anyMatch(a -> a instanceof CursorParam)) {
+                        if(endpoint instanceof PagedEndpoint pe) {
+                            if(pe.getCursorVariable() == null) {
+                                pe.setCursorVariable(field);
+                            } else {
+                                System.err.println("Multiple cursor variables defined in endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+                            }
+                        } else {
+                            System.err.println("Unused @CursorParam annotation encountered in " + endpoint.getClassName() + "." + endpoint.getName());
+                        }
+                    }
                 } else if(annotation instanceof PathVariable) {
                     endpoint.getUrlArgs().add(new Field(variableName, typeParser.parseType(argTypes.get(i))));
                 } else if(annotation instanceof RequestBody) {
@@ -178,22 +261,54 @@ public class SpringEndpointParser implements EndPointParser {
                 }
             }
         }
-        if(endpoint instanceof PagedEndpoint pe && pe.getPageVariable() == null) {
-            throw new RuntimeException("Encountered Paged endpoint without a page variable for endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+        if(endpoint instanceof PagedEndpoint pe && pe.isCursorPaged()) {
+            if(pe.getPageVariable() != null || pe.getPageSizeVariable() != null) {
+                System.err.println("Page variables are ignored in cursor paged endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+            }
+            pe.setNextCursorField(findCursorField(pe, Field::isNextCursor, "@NextCursor"));
+            if(pe.isBidirectional()) {
+                pe.setPreviousCursorField(findCursorField(pe, Field::isPreviousCursor, "@PreviousCursor"));
+            }
+        } else {
+            if(endpoint instanceof PagedEndpoint pe && pe.getPageVariable() == null) {
+                throw new RuntimeException("Encountered Paged endpoint without a page variable for endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+            }
+
+            if(endpoint instanceof PagedEndpoint pe && pe.getPageSizeVariable() == null) {
+                throw new RuntimeException("Encountered Paged endpoint without a page size variable for endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+            }
         }
+    }
 
-        if(endpoint instanceof PagedEndpoint pe && pe.getPageSizeVariable() == null) {
-            throw new RuntimeException("Encountered Paged endpoint without a page size variable for endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+    private Field findCursorField(PagedEndpoint endpoint, Predicate<Field> isCursor, String annotation) {
+        if(endpoint.getReturnType() instanceof ObjectType o) {
+            List<Field> cursorFields = o.getFields().stream().filter(isCursor).toList();
+            if(cursorFields.size() > 1) {
+                throw new RuntimeException("Multiple " + annotation + " fields defined in " + o.getName() + " for endpoint " + endpoint.getClassName() + "." + endpoint.getName());
+            }
+            if(cursorFields.size() == 1) {
+                return cursorFields.get(0);
+            }
         }
+        throw new RuntimeException("Encountered cursor paged endpoint without a " + annotation + " field in its return type for endpoint " + endpoint.getClassName() + "." + endpoint.getName());
     }
 
     private void setNeedsValidation(Type type) {
 
+        if(type instanceof NamedType n && n.needsValidation()) {
+            return;
+        }
+
         if(type instanceof ObjectType o) {
             o.setNeedsValidation(true);
             o.getFields().forEach(field -> setNeedsValidation(field.getType()));
         }
 
+        if(type instanceof UnionType u) {
+            u.setNeedsValidation(true);
+            u.getVariants().forEach(variant -> setNeedsValidation(variant.type()));
+        }
+
         if(type instanceof EnumType e) {
             e.setNeedsValidation(true);
         }
@@ -209,12 +324,19 @@ public class SpringEndpointParser implements EndPointParser {
     }
 
     @SneakyThrows
-    private Endpoint endpoint(CtMethod method, String prefix, HttpMethod httpMethod, String className, String path) {
+    private Endpoint endpoint(CtMethod method, String prefix, HttpMethod httpMethod, String className, String path, String[] produces, String[] consumes) {
         String url = prefix + (path != null ? path : "");
         Endpoint endpoint;
-        if(method.getAnnotation(PagedQuery.class) != null) {
+        PagedQuery pagedQuery = (PagedQuery) method.getAnnotation(PagedQuery.class);
+        if(pagedQuery != null) {
             if(httpMethod.equals(HttpMethod.GET)) {
-                endpoint = new PagedEndpoint(className, method.getName(), url, httpMethod, typeParser.parseType(method));
+                PagedEndpoint pagedEndpoint = new PagedEndpoint(className, method.getName(), url, httpMethod, typeParser.parseType(method));
+                pagedEndpoint.setMaxPages(Math.max(pagedQuery.maxPages(), 0));
+                pagedEndpoint.setBidirectional(pagedQuery.bidirectional());
+                if(pagedEndpoint.getMaxPages() > 0 && !pagedEndpoint.isBidirectional()) {
+                    System.err.println("Pages dropped by maxPages can not be fetched again without bidirectional paging in " + className + "." + method.getName());
+                }
+                endpoint = pagedEndpoint;
             } else {
                 System.err.println("Only GET Methods may be paged in " + className + "." + method.getName());
                 endpoint = new Endpoint(className, method.getName(), url, httpMethod, typeParser.parseType(method));
@@ -223,8 +345,105 @@ public class SpringEndpointParser implements EndPointParser {
             endpoint = new Endpoint(className, method.getName(), url, httpMethod, typeParser.parseType(method));
         }
 
+        endpoint.setProduces(List.of(produces));
+        endpoint.setConsumes(List.of(consumes));
+        endpoint.setStreamFormat(streamFormat(method, produces));
+        if(context.validatesResponses()) {
+            setNeedsValidation(endpoint.getReturnType());
+        }
+
+        if(httpMethod.equals(HttpMethod.GET)) {
+            endpoint.setCache(resolveCache(method));
+            endpoint.setQueryHints(resolveQueryHints(method));
+        }
+        endpoint.setOffloadThreshold(resolveOffloadThreshold(method, endpoint));
+
+        OptimisticUpdate optimisticUpdate = (OptimisticUpdate) method.getAnnotation(OptimisticUpdate.class);
+        if(optimisticUpdate != null) {
+            endpoint.setOptimisticQueries(List.of(optimisticUpdate.value()));
+        }
+
         parseArgs(method, endpoint);
         return endpoint;
     }
+
+    /**
+     * Flux endpoints producing NDJSON or server-sent events are streamed, other Flux endpoints are serialized as JSON array
+     * by spring and are therefore treated like any other list.
+     */
+    @SneakyThrows
+    private StreamFormat streamFormat(CtMethod method, String[] produces) {
+        if(!method.getReturnType().getName().equals(Flux.class.getName())) {
+            return null;
+        }
+
+        for (String mediaType : produces) {
+            if(mediaType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+                return StreamFormat.SSE;
+            }
+            if(mediaType.startsWith(MediaType.APPLICATION_NDJSON_VALUE) || mediaType.startsWith("application/stream+json")) {
+                return StreamFormat.NDJSON;
+            }
+        }
+        return null;
+    }
+
+    @SneakyThrows
+    private QueryHints resolveQueryHints(CtMethod method) {
+        QueryOptions options = (QueryOptions) method.getAnnotation(QueryOptions.class);
+        if(options == null) {
+            options = (QueryOptions) method.getDeclaringClass().getAnnotation(QueryOptions.class);
+        }
+
+        // results cached by spring may be considered fresh on the client as well
+        boolean cacheable = method.hasAnnotation(CACHEABLE) || method.getDeclaringClass().hasAnnotation(CACHEABLE);
+        long cacheableStaleTime = cacheable ? context.getCacheableStaleTime() : -1;
+
+        if(options == null) {
+            return cacheableStaleTime < 0 ? null : new QueryHints(cacheableStaleTime, -1, true, true);
+        }
+
+        return new QueryHints(
+                options.staleTime() < 0 ? cacheableStaleTime : options.staleTime(),
+                options.gcTime(),
+                options.refetchOnWindowFocus(),
+                options.structuralSharing()
+        );
+    }
+
+    @SneakyThrows
+    private Integer resolveOffloadThreshold(CtMethod method, Endpoint endpoint) {
+        OffloadDecoding offloadDecoding = (OffloadDecoding) method.getAnnotation(OffloadDecoding.class);
+        if(offloadDecoding == null) {
+            offloadDecoding = (OffloadDecoding) method.getDeclaringClass().getAnnotation(OffloadDecoding.class);
+        }
+        if(offloadDecoding == null) {
+            return null;
+        }
+
+        if(endpoint.getStreamFormat() != null || endpoint.getReturnType() == PrimitiveType.Void) {
+            System.err.println("Only endpoints returning a single response can be offloaded in " + endpoint.getClassName() + "." + endpoint.getName());
+            return null;
+        }
+        return offloadDecoding.threshold() < 0 ? context.getOffloadThreshold() : offloadDecoding.threshold();
+    }
+
+    @SneakyThrows
+    private QueryCache resolveCache(CtMethod method) {
+        QueryCache defaults = context.getDefaultQueryCache();
+        CachedQuery cachedQuery = (CachedQuery) method.getAnnotation(CachedQuery.class);
+        if(cachedQuery == null) {
+            cachedQuery = (CachedQuery) method.getDeclaringClass().getAnnotation(CachedQuery.class);
+        }
+        if(cachedQuery == null) {
+            return defaults;
+        }
+
+        return new QueryCache(
+                cachedQuery.enabled(),
+                cachedQuery.ttl() < 0 ? defaults.ttl() : cachedQuery.ttl(),
+                cachedQuery.maxEntries() < 0 ? defaults.maxEntries() : cachedQuery.maxEntries()
+        );
+    }
 }
 
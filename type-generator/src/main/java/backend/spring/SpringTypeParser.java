@@ -1,11 +1,23 @@
 package backend.spring;
 
+import annotations.queries.NextCursor;
+import annotations.queries.PreviousCursor;
 import backend.TypeParser;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
 import javassist.CtClass;
 import javassist.CtField;
 import javassist.CtMethod;
 import javassist.Modifier;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.annotation.Annotation;
+import javassist.bytecode.annotation.AnnotationMemberValue;
+import javassist.bytecode.annotation.ArrayMemberValue;
+import javassist.bytecode.annotation.ClassMemberValue;
+import javassist.bytecode.annotation.MemberValue;
+import javassist.bytecode.annotation.StringMemberValue;
 import lombok.SneakyThrows;
 import model.TypeContext;
 import model.types.*;
@@ -161,6 +173,7 @@ public class SpringTypeParser implements TypeParser {
 
         if(ctClass.isEnum()) {
             EnumType enumType = new EnumType(simpleName);
+            enumType.setPackageName(ctClass.getPackageName());
             context.getNamedObjects().put(simpleName, enumType);
             for (CtField field : ctClass.getFields()) {
                 if(field.getType().getName().equals(ctClass.getName())) {
@@ -170,8 +183,106 @@ public class SpringTypeParser implements TypeParser {
             return enumType;
         }
 
+        JsonTypeInfo typeInfo = (JsonTypeInfo) ctClass.getAnnotation(JsonTypeInfo.class);
+        if(typeInfo != null) {
+            UnionType unionType = parseUnion(ctClass, simpleName, typeInfo);
+            if(unionType != null) {
+                return unionType;
+            }
+        }
+
         ObjectType objectType = new ObjectType(simpleName);
+        objectType.setPackageName(ctClass.getPackageName());
         context.getNamedObjects().put(simpleName, objectType);
+        objectType.getFields().addAll(parseFields(ctClass));
+        return objectType;
+    }
+
+    /**
+     * Parses a base type annotated with {@code @JsonTypeInfo} and {@code @JsonSubTypes} as union of its subtypes.
+     *
+     * @return The union or null if the type information can not be represented as discriminated union
+     */
+    @SneakyThrows
+    private UnionType parseUnion(CtClass ctClass, String simpleName, JsonTypeInfo typeInfo) {
+        List<Annotation> subTypes = getSubTypes(ctClass);
+        if(subTypes.isEmpty()) {
+            System.err.println("@JsonTypeInfo without @JsonSubTypes on " + ctClass.getName() + " is generated as plain object");
+            return null;
+        }
+        if(typeInfo.include() != JsonTypeInfo.As.PROPERTY && typeInfo.include() != JsonTypeInfo.As.EXISTING_PROPERTY) {
+            System.err.println("Only type information included as property is supported, " + ctClass.getName() + " is generated as plain object");
+            return null;
+        }
+        if(!Set.of(JsonTypeInfo.Id.NAME, JsonTypeInfo.Id.SIMPLE_NAME, JsonTypeInfo.Id.CLASS, JsonTypeInfo.Id.MINIMAL_CLASS).contains(typeInfo.use())) {
+            System.err.println("Type ids of kind " + typeInfo.use() + " are not supported, " + ctClass.getName() + " is generated as plain object");
+            return null;
+        }
+
+        String discriminator = typeInfo.property().isEmpty() ? typeInfo.use().getDefaultPropertyName() : typeInfo.property();
+        UnionType unionType = new UnionType(simpleName, discriminator);
+        unionType.setPackageName(ctClass.getPackageName());
+        context.getNamedObjects().put(simpleName, unionType);
+        unionType.getFields().addAll(parseFields(ctClass));
+
+        for (Annotation subType : subTypes) {
+            CtClass variantClass = ctClass.getClassPool().get(((ClassMemberValue) subType.getMemberValue("value")).getValue());
+            StringMemberValue name = (StringMemberValue) subType.getMemberValue("name");
+            String tag = name != null && !name.getValue().isEmpty() ? name.getValue() : getTypeId(variantClass, ctClass, typeInfo.use());
+
+            if(!(parseObject(variantClass) instanceof ObjectType variant)) {
+                throw new RuntimeException("Subtype " + variantClass.getName() + " of " + ctClass.getName() + " has to be a plain object");
+            }
+            unionType.getVariants().add(new UnionType.Variant(tag, variant));
+        }
+        return unionType;
+    }
+
+    /**
+     * Reads {@code @JsonSubTypes} from the bytecode, as the referenced classes can not be loaded by the plugin.
+     */
+    private List<Annotation> getSubTypes(CtClass ctClass) {
+        AnnotationsAttribute attribute = (AnnotationsAttribute) ctClass.getClassFile2().getAttribute(AnnotationsAttribute.visibleTag);
+        Annotation annotation = attribute == null ? null : attribute.getAnnotation(JsonSubTypes.class.getName());
+        if(annotation == null || annotation.getMemberValue("value") == null) {
+            return List.of();
+        }
+
+        List<Annotation> subTypes = new ArrayList<>();
+        for (MemberValue value : ((ArrayMemberValue) annotation.getMemberValue("value")).getValue()) {
+            subTypes.add(((AnnotationMemberValue) value).getValue());
+        }
+        return subTypes;
+    }
+
+    /**
+     * The type id Jackson derives for a subtype without explicit name.
+     */
+    private String getTypeId(CtClass variant, CtClass base, JsonTypeInfo.Id use) throws ClassNotFoundException {
+        JsonTypeName typeName = (JsonTypeName) variant.getAnnotation(JsonTypeName.class);
+        boolean named = use == JsonTypeInfo.Id.NAME || use == JsonTypeInfo.Id.SIMPLE_NAME;
+        if(named && typeName != null && !typeName.value().isEmpty()) {
+            return typeName.value();
+        }
+
+        String className = variant.getName();
+        return switch (use) {
+            case CLASS -> className;
+            case MINIMAL_CLASS -> className.startsWith(base.getPackageName() + ".")
+                    ? className.substring(base.getPackageName().length())
+                    : className;
+            // unlike NAME, the simple name of nested classes does not contain the enclosing class
+            case SIMPLE_NAME -> className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+            default -> className.substring(className.lastIndexOf('.') + 1);
+        };
+    }
+
+    /**
+     * @return The fields of the class including the inherited ones
+     */
+    @SneakyThrows
+    private List<Field> parseFields(CtClass ctClass) {
+        List<Field> fields = new ArrayList<>();
         for(CtField field: ctClass.getDeclaredFields()) {
             if(field.getAnnotation(JsonIgnore.class) != null) {
                 continue;
@@ -181,15 +292,21 @@ public class SpringTypeParser implements TypeParser {
             }
             Field f = new Field(field.getName(), parseType(field));
             f.setRequired(!field.hasAnnotation(Nullable.class));
+            f.setNextCursor(field.hasAnnotation(NextCursor.class));
+            f.setPreviousCursor(field.hasAnnotation(PreviousCursor.class));
             f.getValidations().addAll(getNeededValidation(field));
-            objectType.getFields().add(f);
+            fields.add(f);
         }
 
         if (ctClass.getSuperclass() != null && !ctClass.getSuperclass().getName().equals(Object.class.getName())) {
-            ObjectType o = (ObjectType) parseObject(ctClass.getSuperclass());
-            objectType.getFields().addAll(o.getFields());
+            NamedType parent = parseObject(ctClass.getSuperclass());
+            if(parent instanceof UnionType u) {
+                fields.addAll(u.getFields());
+            } else if(parent instanceof ObjectType o) {
+                fields.addAll(o.getFields());
+            }
         }
-        return objectType;
+        return fields;
     }
 
     @SneakyThrows
@@ -0,0 +1,214 @@
+package frontend;
+
+import model.Endpoint;
+import model.TypeContext;
+import model.TypeGraph;
+import model.config.OutputLayout;
+import model.types.NamedType;
+import model.types.ObjectType;
+import model.types.UnionType;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static frontend.types.TypeWriter.TYPE_DECLARATIONS_DIR;
+
+/**
+ * Groups the generated type declarations into fewer files. The default exports of the grouped types become named exports
+ * and all imports of them are rewritten accordingly, a barrel {@code types/index.ts} re-exports every group.
+ */
+public class FileLayout {
+    public static final String BARREL = "index";
+    public static final String COMMON = "common";
+
+    private final OutputLayout layout;
+    private final TypeContext context;
+    private final String basePath;
+
+    private final Map<Path, String> typeFiles = new HashMap<>();
+    private final Map<String, TypeScriptFile> groups = new TreeMap<>();
+    private final Map<String, String> typeLocations = new TreeMap<>();
+
+    public FileLayout(OutputLayout layout, TypeContext context, String basePath) {
+        this.layout = layout;
+        this.context = context;
+        this.basePath = basePath;
+    }
+
+    public List<TypeScriptFile> apply(List<TypeScriptFile> files, List<Endpoint> endpoints) {
+        if (layout == OutputLayout.PerType) {
+            context.getNamedObjectFiles().forEach((name, file) -> typeLocations.put(name, file.getLocation()));
+            return files;
+        }
+
+        Function<NamedType, String> groupOf = groupFunction(endpoints);
+        Set<TypeScriptFile> grouped = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<String, List<String>> members = new TreeMap<>();
+        context.getNamedObjectFiles().forEach((name, file) -> {
+            String group = groupOf.apply(context.getNamedObjects().get(name));
+            typeFiles.put(normalize(file.getLocation()), group);
+            members.computeIfAbsent(group, g -> new ArrayList<>()).add(name);
+            grouped.add(file);
+            TypeScriptFile groupFile = groups.computeIfAbsent(group, g -> {
+                TypeScriptFile newGroup = new TypeScriptFile();
+                newGroup.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + g);
+                return newGroup;
+            });
+            typeLocations.put(name, groupFile.getLocation());
+        });
+
+        members.forEach((group, names) -> {
+            TypeScriptFile groupFile = groups.get(group);
+            List<TypeScriptFile.Import> imports = new ArrayList<>();
+            List<TypeScriptFile> memberFiles = names.stream().sorted().map(context.getNamedObjectFiles()::get).toList();
+            memberFiles.forEach(file -> imports.addAll(rewriteImports(file, groupFile)));
+            groupFile.setImports(mergeImports(imports));
+            groupFile.setBody(join(memberFiles, TypeScriptFile::getBody));
+            if (memberFiles.stream().allMatch(file -> file.getScript() != null && file.getDeclarations() != null)) {
+                List<TypeScriptFile> scripts = memberFiles.stream().filter(file -> !file.getScript().equals(TypeScriptFile.EMPTY_MODULE)).toList();
+                groupFile.setScript(scripts.isEmpty() ? TypeScriptFile.EMPTY_MODULE : join(scripts, TypeScriptFile::getScript));
+                groupFile.setDeclarations(join(memberFiles, TypeScriptFile::getDeclarations));
+            }
+        });
+
+        List<TypeScriptFile> result = new ArrayList<>();
+        for (TypeScriptFile file : files) {
+            if (!grouped.contains(file)) {
+                file.setImports(mergeImports(rewriteImports(file, file)));
+                result.add(file);
+            }
+        }
+        result.addAll(groups.values());
+
+        if (!groups.containsKey(BARREL)) {
+            TypeScriptFile barrel = new TypeScriptFile();
+            barrel.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + BARREL);
+            barrel.setBody(groups.values().stream()
+                    .map(group -> "export * from '" + barrel.getImportLocationFor(group) + "';\n")
+                    .collect(Collectors.joining()));
+            barrel.setScript(barrel.getBody());
+            barrel.setDeclarations(barrel.getBody());
+            result.add(barrel);
+        }
+        return result;
+    }
+
+    /**
+     * @return The location of the file declaring each named type once the layout was applied
+     */
+    public Map<String, String> getTypeLocations() {
+        return typeLocations;
+    }
+
+    private Function<NamedType, String> groupFunction(List<Endpoint> endpoints) {
+        return switch (layout) {
+            case Package -> type -> type.getPackageName() == null || type.getPackageName().isEmpty() ? COMMON : type.getPackageName();
+            case Controller -> {
+                Map<String, Set<String>> usages = controllerUsages(endpoints);
+                yield type -> {
+                    Set<String> controllers = usages.getOrDefault(type.getName(), Set.of());
+                    return controllers.size() == 1 ? controllers.iterator().next() : COMMON;
+                };
+            }
+            case Single -> type -> BARREL;
+            case PerType -> type -> type.getName();
+        };
+    }
+
+    /**
+     * @return The controllers each named type is reachable from
+     */
+    private Map<String, Set<String>> controllerUsages(List<Endpoint> endpoints) {
+        Map<String, Set<String>> usages = new HashMap<>();
+        endpoints.forEach(endpoint -> {
+            Deque<String> queue = new ArrayDeque<>(TypeGraph.references(endpoint.getReturnType()));
+            if (endpoint.getBody() != null) {
+                queue.addAll(TypeGraph.references(endpoint.getBody()));
+            }
+            endpoint.getAllVariables().forEach(field -> queue.addAll(TypeGraph.references(field.getType())));
+
+            while (!queue.isEmpty()) {
+                String name = queue.pop();
+                if (usages.computeIfAbsent(name, n -> new TreeSet<>()).add(endpoint.getClassName())) {
+                    if (context.getNamedObjects().get(name) instanceof ObjectType o) {
+                        o.getFields().forEach(field -> queue.addAll(TypeGraph.references(field.getType())));
+                    }
+                    if (context.getNamedObjects().get(name) instanceof UnionType u) {
+                        u.getVariants().forEach(variant -> queue.add(variant.type().getName()));
+                    }
+                }
+            }
+        });
+        return usages;
+    }
+
+    /**
+     * Imports of grouped type files are replaced by named imports of their group, imports of the own group are dropped.
+     */
+    private List<TypeScriptFile.Import> rewriteImports(TypeScriptFile file, TypeScriptFile target) {
+        List<TypeScriptFile.Import> imports = new ArrayList<>();
+        for (TypeScriptFile.Import imp : file.getImports()) {
+            String group = imp.getLocation().startsWith(".")
+                    ? typeFiles.get(Paths.get(file.getLocation()).getParent().resolve(imp.getLocation()).normalize())
+                    : null;
+            if (group == null) {
+                imports.add(imp);
+                continue;
+            }
+
+            TypeScriptFile groupFile = groups.get(group);
+            if (groupFile == target) {
+                continue;
+            }
+            Set<String> names = new HashSet<>(imp.getImports());
+            if (imp.getDefaultImport() != null) {
+                names.add(imp.getDefaultImport());
+            }
+            imports.add(new TypeScriptFile.Import(target.getImportLocationFor(groupFile), null, names));
+        }
+        return imports;
+    }
+
+    private List<TypeScriptFile.Import> mergeImports(List<TypeScriptFile.Import> imports) {
+        Map<String, TypeScriptFile.Import> merged = new LinkedHashMap<>();
+        imports.forEach(imp -> {
+            TypeScriptFile.Import existing = merged.get(imp.getLocation());
+            if (existing == null) {
+                merged.put(imp.getLocation(), new TypeScriptFile.Import(imp.getLocation(), imp.getDefaultImport(), new HashSet<>(imp.getImports())));
+            } else {
+                existing.getImports().addAll(imp.getImports());
+                if (existing.getDefaultImport() == null) {
+                    existing.setDefaultImport(imp.getDefaultImport());
+                }
+            }
+        });
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Joins the given part of the member files with their default exports turned into named exports.
+     */
+    private String join(List<TypeScriptFile> memberFiles, Function<TypeScriptFile, String> part) {
+        return memberFiles.stream()
+                .map(file -> exportNamed(part.apply(file), Paths.get(file.getLocation()).getFileName().toString()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String exportNamed(String body, String name) {
+        String quoted = Pattern.quote(name);
+        String replacement = Matcher.quoteReplacement(name);
+        return body
+                .replaceAll("(?m)^export default interface " + quoted + " ", "export interface " + replacement + " ")
+                .replaceAll("(?m)^type " + quoted + " = ", "export type " + replacement + " = ")
+                .replaceAll("(?m)^export default " + quoted + ";\\n?", "");
+    }
+
+    private static Path normalize(String location) {
+        return Paths.get(location).normalize();
+    }
+}
@@ -0,0 +1,81 @@
+package frontend;
+
+import lombok.SneakyThrows;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Records the SHA-256 hash of every written file and of the whole output in {@code manifest.json}, which downstream
+ * build caches and persisted query caches can use as key. The hash of the output is also exported as {@code MODEL_HASH}
+ * from {@code manifest.ts}.
+ */
+public class Manifest {
+    public static final String FILE_NAME = "manifest";
+
+    private final String basePath;
+    private final Map<String, String> hashes = new TreeMap<>();
+
+    public Manifest(String basePath) {
+        this.basePath = basePath;
+    }
+
+    /**
+     * @return The manifest module, which is not part of the hashed files itself
+     */
+    public TypeScriptFile write(List<TypeScriptFile> files) {
+        Path base = Paths.get(basePath);
+        files.stream()
+                .flatMap(file -> Stream.of(".ts", ".js", ".d.ts").map(extension -> new File(file.getLocation() + extension)))
+                .filter(File::isFile)
+                .forEach(file -> hashes.put(base.relativize(file.toPath()).toString().replace(File.separatorChar, '/'), hash(file)));
+
+        String modelHash = sha256(hashes.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue() + "\n")
+                .collect(Collectors.joining())
+                .getBytes());
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"algorithm\": \"SHA-256\",\n");
+        json.append("  \"modelHash\": \"").append(modelHash).append("\",\n");
+        json.append("  \"files\": {\n");
+        json.append(hashes.entrySet().stream()
+                .map(entry -> "    \"" + entry.getKey().replace("\\", "\\\\").replace("\"", "\\\"") + "\": \"" + entry.getValue() + "\"")
+                .collect(Collectors.joining(",\n")));
+        json.append(hashes.isEmpty() ? "" : "\n").append("  }\n");
+        json.append("}\n");
+        writeJson(json.toString());
+
+        TypeScriptFile module = new TypeScriptFile();
+        module.setLocation(basePath + FILE_NAME);
+        module.setBody("export const MODEL_HASH = '" + modelHash + "';\n");
+        module.setScript(module.getBody());
+        module.setDeclarations("export declare const MODEL_HASH: string;\n");
+        return module;
+    }
+
+    @SneakyThrows
+    private void writeJson(String json) {
+        Files.writeString(Paths.get(basePath, FILE_NAME + ".json"), json);
+    }
+
+    @SneakyThrows
+    private static String hash(File file) {
+        return sha256(Files.readAllBytes(file.toPath()));
+    }
+
+    @SneakyThrows
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
@@ -0,0 +1,227 @@
+package frontend;
+
+import model.Endpoint;
+import model.TypeContext;
+import model.TypeGraph;
+import model.types.NamedType;
+import model.types.ObjectType;
+import model.types.UnionType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Size and complexity metrics of the generated files and endpoints, which are checked against budgets and compared with
+ * the report of the previous run. The report is written as tab separated text, such that it can be read back and diffed
+ * without further dependencies.
+ */
+public class OutputReport {
+    private static final String FILE = "file";
+    private static final String ENDPOINT = "endpoint";
+
+    /**
+     * Limits of the metrics, values of 0 or less are not checked.
+     */
+    public record Budgets(long fileSize, int fieldCount, int nestingDepth, int importFanOut, int endpointTypes) {
+    }
+
+    /**
+     * @param bytes        The size of the written file, the sum of script and declarations for declaration output
+     * @param fields       The fields of the types declared in the file
+     * @param depth        The deepest nesting of named types declared in the file
+     * @param importFanOut The generated files imported directly or transitively
+     */
+    public record FileMetrics(long bytes, int fields, int depth, int importFanOut) {
+    }
+
+    private final TypeContext context;
+    private final Map<String, FileMetrics> files = new TreeMap<>();
+    private final Map<String, Set<String>> endpointTypes = new TreeMap<>();
+
+    public OutputReport(TypeContext context) {
+        this.context = context;
+    }
+
+    private OutputReport() {
+        this.context = null;
+    }
+
+    /**
+     * Adds the files written to one output directory.
+     *
+     * @param typeLocations The location of the file declaring each named type
+     */
+    public void addFiles(List<TypeScriptFile> written, Map<String, String> typeLocations) {
+        TypeGraph graph = new TypeGraph(context.getNamedObjects());
+        Map<String, List<String>> declared = new HashMap<>();
+        typeLocations.forEach((name, location) -> declared.computeIfAbsent(location, l -> new ArrayList<>()).add(name));
+
+        Map<Path, TypeScriptFile> byPath = new HashMap<>();
+        written.forEach(file -> byPath.put(Paths.get(file.getLocation()).normalize(), file));
+
+        for (TypeScriptFile file : written) {
+            List<String> types = declared.getOrDefault(file.getLocation(), List.of());
+            int fields = types.stream().mapToInt(this::fieldCount).sum();
+            int depth = types.stream().mapToInt(graph::depth).max().orElse(0);
+            files.put(file.getLocation(), new FileMetrics(size(file), fields, depth, importFanOut(file, byPath)));
+        }
+    }
+
+    public void addEndpoints(List<Endpoint> endpoints) {
+        TypeGraph graph = new TypeGraph(context.getNamedObjects());
+        endpoints.forEach(endpoint -> {
+            Set<String> roots = new LinkedHashSet<>(TypeGraph.references(endpoint.getReturnType()));
+            if (endpoint.getBody() != null) {
+                roots.addAll(TypeGraph.references(endpoint.getBody()));
+            }
+            endpoint.getAllVariables().forEach(field -> roots.addAll(TypeGraph.references(field.getType())));
+            endpointTypes.put(endpoint.getClassName() + "." + endpoint.getName(), graph.reachable(roots));
+        });
+    }
+
+    /**
+     * @return A message for every file or endpoint exceeding one of the budgets
+     */
+    public List<String> violations(Budgets budgets) {
+        List<String> violations = new ArrayList<>();
+        files.forEach((location, metrics) -> {
+            check(violations, location, "bytes", metrics.bytes(), budgets.fileSize());
+            check(violations, location, "fields", metrics.fields(), budgets.fieldCount());
+            check(violations, location, "nesting depth", metrics.depth(), budgets.nestingDepth());
+            check(violations, location, "imported files", metrics.importFanOut(), budgets.importFanOut());
+        });
+        endpointTypes.forEach((endpoint, types) -> check(violations, endpoint, "reachable types", types.size(), budgets.endpointTypes()));
+        return violations;
+    }
+
+    private static void check(List<String> violations, String subject, String metric, long value, long budget) {
+        if (budget > 0 && value > budget) {
+            violations.add(subject + " has " + value + " " + metric + ", the budget is " + budget);
+        }
+    }
+
+    /**
+     * @return The added, removed and changed files and endpoints compared to the previous report
+     */
+    public List<String> diff(OutputReport previous) {
+        List<String> changes = new ArrayList<>();
+        previous.files.keySet().stream().filter(location -> !files.containsKey(location))
+                .forEach(location -> changes.add("- " + location));
+        files.forEach((location, metrics) -> {
+            FileMetrics old = previous.files.get(location);
+            if (old == null) {
+                changes.add("+ " + location + " " + metrics.bytes() + " bytes");
+            } else if (!old.equals(metrics)) {
+                List<String> deltas = new ArrayList<>();
+                delta(deltas, "bytes", old.bytes(), metrics.bytes());
+                delta(deltas, "fields", old.fields(), metrics.fields());
+                delta(deltas, "nesting depth", old.depth(), metrics.depth());
+                delta(deltas, "imported files", old.importFanOut(), metrics.importFanOut());
+                changes.add("~ " + location + " " + String.join(", ", deltas));
+            }
+        });
+
+        previous.endpointTypes.keySet().stream().filter(endpoint -> !endpointTypes.containsKey(endpoint))
+                .forEach(endpoint -> changes.add("- " + endpoint));
+        endpointTypes.forEach((endpoint, types) -> {
+            Set<String> old = previous.endpointTypes.get(endpoint);
+            if (old == null) {
+                changes.add("+ " + endpoint + " " + types.size() + " reachable types");
+            } else if (!old.equals(types)) {
+                List<String> deltas = new ArrayList<>();
+                types.stream().filter(type -> !old.contains(type)).forEach(type -> deltas.add("+" + type));
+                old.stream().filter(type -> !types.contains(type)).forEach(type -> deltas.add("-" + type));
+                changes.add("~ " + endpoint + " " + old.size() + " -> " + types.size() + " reachable types (" + String.join(" ", deltas) + ")");
+            }
+        });
+        return changes;
+    }
+
+    private static void delta(List<String> deltas, String metric, long old, long current) {
+        if (old != current) {
+            deltas.add(metric + " " + old + " -> " + current + " (" + (current > old ? "+" : "") + (current - old) + ")");
+        }
+    }
+
+    public void write(File file, List<String> changes) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append("# ").append(FILE).append("\tlocation\tbytes\tfields\tnesting depth\timported files\n");
+        files.forEach((location, metrics) -> report.append(FILE).append("\t").append(location)
+                .append("\t").append(metrics.bytes())
+                .append("\t").append(metrics.fields())
+                .append("\t").append(metrics.depth())
+                .append("\t").append(metrics.importFanOut()).append("\n"));
+
+        report.append("\n# ").append(ENDPOINT).append("\tname\treachable types\ttypes\n");
+        endpointTypes.forEach((endpoint, types) -> report.append(ENDPOINT).append("\t").append(endpoint)
+                .append("\t").append(types.size())
+                .append("\t").append(String.join(",", types)).append("\n"));
+
+        if (!changes.isEmpty()) {
+            report.append("\n# changes since the previous run\n");
+            changes.forEach(change -> report.append("# ").append(change).append("\n"));
+        }
+
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), report.toString());
+    }
+
+    public static OutputReport read(File file) throws IOException {
+        OutputReport report = new OutputReport();
+        for (String line : Files.readAllLines(file.toPath())) {
+            String[] columns = line.split("\t", -1);
+            if (columns[0].equals(FILE) && columns.length == 6) {
+                report.files.put(columns[1], new FileMetrics(Long.parseLong(columns[2]), Integer.parseInt(columns[3]),
+                        Integer.parseInt(columns[4]), Integer.parseInt(columns[5])));
+            } else if (columns[0].equals(ENDPOINT) && columns.length == 4) {
+                report.endpointTypes.put(columns[1], columns[3].isEmpty()
+                        ? new TreeSet<>()
+                        : Arrays.stream(columns[3].split(",")).collect(Collectors.toCollection(TreeSet::new)));
+            }
+        }
+        return report;
+    }
+
+    private int fieldCount(String name) {
+        NamedType type = context.getNamedObjects().get(name);
+        if (type instanceof ObjectType o) {
+            return o.getFields().size();
+        }
+        if (type instanceof UnionType u) {
+            return u.getFields().size() + u.getVariants().stream().mapToInt(variant -> variant.type().getFields().size()).sum();
+        }
+        return 0;
+    }
+
+    private static long size(TypeScriptFile file) {
+        return Stream.of(".ts", ".js", ".d.ts")
+                .map(extension -> new File(file.getLocation() + extension))
+                .filter(File::isFile)
+                .mapToLong(File::length)
+                .sum();
+    }
+
+    private static int importFanOut(TypeScriptFile file, Map<Path, TypeScriptFile> byPath) {
+        Set<TypeScriptFile> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<TypeScriptFile> queue = new ArrayDeque<>(List.of(file));
+        while (!queue.isEmpty()) {
+            TypeScriptFile current = queue.pop();
+            for (TypeScriptFile.Import imp : current.getImports()) {
+                if (!imp.getLocation().startsWith(".")) {
+                    continue;
+                }
+                TypeScriptFile imported = byPath.get(Paths.get(current.getLocation()).getParent().resolve(imp.getLocation()).normalize());
+                if (imported != null && imported != file && visited.add(imported)) {
+                    queue.add(imported);
+                }
+            }
+        }
+        return visited.size();
+    }
+}
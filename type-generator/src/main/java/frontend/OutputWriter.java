@@ -0,0 +1,90 @@
+package frontend;
+
+import frontend.api.EndpointWriter;
+import frontend.api.angular.AngularWriter;
+import frontend.api.fetch.FetchWriter;
+import frontend.api.reactQuery.ReactQueryWriter;
+import frontend.types.TypeWriter;
+import frontend.types.typescript.TypeScriptWriter;
+import frontend.types.validator.ValidatorWriter;
+import frontend.types.zod.ZodWriter;
+import lombok.RequiredArgsConstructor;
+import model.Endpoint;
+import model.TypeContext;
+import model.config.FrontendAPI;
+import model.config.FrontendTypes;
+import model.config.OutputFormat;
+import model.config.OutputLayout;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the types and endpoints of a parsed model into an output directory, shared by the maven plugin and the
+ * annotation processor.
+ */
+@RequiredArgsConstructor
+public class OutputWriter {
+    private final TypeContext context;
+    private final FrontendTypes frontendTypes;
+    private final FrontendAPI frontendAPI;
+    private final OutputLayout outputLayout;
+    private final OutputFormat outputFormat;
+
+    private static final Comparator<Endpoint> ENDPOINT_ORDER = Comparator.comparing(Endpoint::getClassName)
+            .thenComparing(Endpoint::getName)
+            .thenComparing(Endpoint::getUrl)
+            .thenComparing(endpoint -> endpoint.getHttpMethod().name());
+
+    /**
+     * @param report Collects the metrics of the written files, may be null
+     */
+    public void write(String dirName, List<Endpoint> parsedEndpoints, OutputReport report) {
+        // the order of the parsed classes and methods depends on the file system and the class files
+        List<Endpoint> endpoints = parsedEndpoints.stream().sorted(ENDPOINT_ORDER).toList();
+
+        TypeWriter typeWriter = switch (frontendTypes) {
+            case Typescript -> new TypeScriptWriter(dirName);
+            case Zod -> new ZodWriter(dirName);
+            case Validator -> new ValidatorWriter(dirName);
+        };
+
+        EndpointWriter endpointWriter = switch (frontendAPI) {
+            case ReactQuery -> new ReactQueryWriter(context, dirName, typeWriter);
+            case Angular -> new AngularWriter(context, dirName, typeWriter);
+            case Fetch -> new FetchWriter(context, dirName, typeWriter);
+        };
+
+        List<TypeScriptFile> files = new ArrayList<>();
+        files.addAll(typeWriter.printAllTypes(context));
+        files.addAll(endpointWriter.printAllEndPoints(endpoints));
+        FileLayout fileLayout = new FileLayout(outputLayout, context, dirName);
+        files = fileLayout.apply(files, endpoints);
+        OutputFormat format = format(frontendTypes, outputFormat);
+        files.forEach(file -> file.write(format));
+        TypeScriptFile manifest = new Manifest(dirName).write(files);
+        manifest.write(format);
+        if (report != null) {
+            report.addFiles(files, fileLayout.getTypeLocations());
+        }
+    }
+
+    /**
+     * Only plain types are precompiled, the schemas of Zod and the validators are written as TypeScript like the
+     * endpoint clients, so the whole output stays TypeScript for them.
+     *
+     * @return The format the files are written in
+     */
+    public static OutputFormat format(FrontendTypes frontendTypes, OutputFormat outputFormat) {
+        return frontendTypes == FrontendTypes.Typescript ? outputFormat : OutputFormat.TypeScript;
+    }
+
+    /**
+     * @return The configured directory with a trailing slash
+     */
+    public static String dirName(String dir) {
+        String dirName = dir.strip();
+        return dirName.endsWith("/") ? dirName : dirName + "/";
+    }
+}
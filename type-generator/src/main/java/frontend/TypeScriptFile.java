@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import model.TypeContext;
+import model.config.OutputFormat;
 import model.types.ArrayType;
 import model.types.MapType;
 import model.types.NamedType;
@@ -17,10 +18,17 @@ import java.util.*;
 
 @Data
 public class TypeScriptFile {
+    public static final String EMPTY_MODULE = "export {};\n";
 
     private String location;
     private List<Import> imports = new ArrayList<>();
     private String body;
+    /**
+     * The body as JavaScript and its type declarations, set if the file can be emitted without a TypeScript compiler.
+     * Imports are only written to the declarations, the scripts only need types from them.
+     */
+    private String script;
+    private String declarations;
 
     @Data
     @AllArgsConstructor
@@ -49,14 +57,37 @@ public class TypeScriptFile {
         }
     }
 
-    @SneakyThrows
     public void write() {
-        File f = new File(location + ".ts");
+        write(OutputFormat.TypeScript);
+    }
+
+    /**
+     * Writes the file as {@code .ts} or, if possible in the given format, as {@code .js} with a {@code .d.ts} file.
+     */
+    public void write(OutputFormat format) {
+        if (format == OutputFormat.TypeDeclarations && script != null && declarations != null) {
+            new File(location + ".ts").delete();
+            write(location + ".js", List.of(), script);
+            write(location + ".d.ts", sortedImports(), declarations);
+        } else {
+            new File(location + ".js").delete();
+            new File(location + ".d.ts").delete();
+            write(location + ".ts", sortedImports(), body);
+        }
+    }
+
+    private List<Import> sortedImports() {
+        return imports.stream().sorted(Comparator.comparing(Import::getLocation)).toList();
+    }
+
+    @SneakyThrows
+    private static void write(String path, List<Import> imports, String body) {
+        File f = new File(path);
         f.getParentFile().mkdirs();
         f.delete();
         f.createNewFile();
 
-        try(FileWriter fileWriter = new FileWriter(location + ".ts")) {
+        try(FileWriter fileWriter = new FileWriter(path)) {
             BufferedWriter writer = new BufferedWriter(fileWriter);
 
             for (Import imp : imports) {
@@ -126,4 +157,26 @@ public class TypeScriptFile {
             }
         }
     }
+
+    public void addImport(NamedType o, String name, TypeContext context) {
+        TypeScriptFile toImport = context.getNamedObjectFiles().get(o.getName());
+
+        if(toImport != this) {
+            String location = this.getImportLocationFor(toImport);
+
+            Optional<Import> importOptional = this.getImports()
+                    .stream()
+                    .filter(imp -> imp.getLocation().equals(location))
+                    .findFirst();
+
+            if (importOptional.isPresent()) {
+                importOptional.get().getImports().add(name);
+            } else {
+                TypeScriptFile.Import newImport = new TypeScriptFile.Import();
+                newImport.getImports().add(name);
+                newImport.setLocation(location);
+                this.getImports().add(newImport);
+            }
+        }
+    }
 }
@@ -0,0 +1,214 @@
+package frontend.api;
+
+import frontend.TypeScriptFile;
+import frontend.types.TypeWriter;
+import model.Endpoint;
+import model.TypeContext;
+import model.types.*;
+
+import java.util.*;
+
+import static frontend.api.EndpointWriter.ENDPOINTS_DIR;
+
+/**
+ * Generates functions converting the date strings of a response into {@code Date} objects. Only the fields which hold a
+ * date are visited, the rest of the response is left untouched.
+ */
+public class DateRevivers {
+    public static final String REVIVERS = "revivers";
+
+    private final TypeContext context;
+    private final boolean revives;
+    private final TypeScriptFile file = new TypeScriptFile();
+    private final Map<String, String> functions = new LinkedHashMap<>();
+    private final Set<String> namedTypesWithDates = new HashSet<>();
+    private int variables = 0;
+
+    public DateRevivers(TypeContext context, String basePath, TypeWriter typeWriter, List<Endpoint> endpoints) {
+        this.context = context;
+        this.revives = !context.isUseStringAsDate();
+        file.setLocation(basePath + ENDPOINTS_DIR + "/" + REVIVERS);
+        if (!revives) {
+            return;
+        }
+
+        // a fixed point, as types may reference each other
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (NamedType namedType : context.getNamedObjects().values()) {
+                if (!typeWriter.declaresDates(namedType, context)) {
+                    continue;
+                }
+                if (namedType instanceof ObjectType o && !namedTypesWithDates.contains(o.getName())
+                        && o.getFields().stream().anyMatch(field -> containsDate(field.getType()))) {
+                    namedTypesWithDates.add(o.getName());
+                    changed = true;
+                }
+                if (namedType instanceof UnionType u && !namedTypesWithDates.contains(u.getName())
+                        && u.getVariants().stream().anyMatch(variant -> containsDate(variant.type()))) {
+                    namedTypesWithDates.add(u.getName());
+                    changed = true;
+                }
+            }
+        }
+
+        // streamed endpoints are revived item by item
+        endpoints.forEach(endpoint -> addFunction(endpoint.getStreamFormat() == null
+                ? endpoint.getReturnType()
+                : ((ArrayType) endpoint.getReturnType()).getSubType()));
+    }
+
+    /**
+     * @return true if any endpoint response has to be revived
+     */
+    public boolean isNeeded() {
+        return !functions.isEmpty();
+    }
+
+    public TypeScriptFile getFile() {
+        file.setBody(String.join("\n", functions.values()));
+        return file;
+    }
+
+    /**
+     * @return An expression reviving the dates in the given value, adding the needed import to the given file
+     */
+    public String revive(Type t, String value, TypeScriptFile target) {
+        String reviver = reviver(t, target);
+        return reviver == null ? value : reviver + "(" + value + ")";
+    }
+
+    /**
+     * @return The function reviving the dates in values of the given type or null if they contain none, adding the
+     * needed import to the given file
+     */
+    public String reviver(Type t, TypeScriptFile target) {
+        if (!containsDate(t)) {
+            return null;
+        }
+
+        String name = functionName(t);
+        String location = target.getImportLocationFor(file);
+        Optional<TypeScriptFile.Import> importOptional = target.getImports()
+                .stream()
+                .filter(imp -> imp.getLocation().equals(location))
+                .findFirst();
+
+        if (importOptional.isPresent()) {
+            importOptional.get().getImports().add(name);
+        } else {
+            target.getImports().add(new TypeScriptFile.Import(location, null, new HashSet<>(Set.of(name))));
+        }
+        return name;
+    }
+
+    private boolean containsDate(Type t) {
+        if (!revives) {
+            return false;
+        }
+
+        if (t instanceof PrimitiveType p) {
+            return p == PrimitiveType.Date;
+        }
+
+        if (t instanceof NamedType o) {
+            return namedTypesWithDates.contains(o.getName());
+        }
+
+        if (t instanceof ArrayType arr) {
+            return containsDate(arr.getSubType());
+        }
+
+        if (t instanceof MapType map) {
+            return containsDate(map.getValueSubType());
+        }
+
+        return false;
+    }
+
+    private String functionName(Type t) {
+        if (t instanceof PrimitiveType p) {
+            return "revive" + p.name();
+        }
+
+        if (t instanceof NamedType o) {
+            return "revive" + o.getName();
+        }
+
+        if (t instanceof ArrayType arr) {
+            return functionName(arr.getSubType()) + "Array";
+        }
+
+        if (t instanceof MapType map) {
+            return functionName(map.getValueSubType()) + "Record";
+        }
+
+        throw new UnsupportedOperationException("Unsupported Type: " + t.getClass().getName());
+    }
+
+    private void addFunction(Type t) {
+        if (!containsDate(t)) {
+            return;
+        }
+
+        String name = functionName(t);
+        if (functions.containsKey(name)) {
+            return;
+        }
+        // registered before the body is built to terminate on recursive types
+        functions.put(name, "");
+
+        StringBuilder function = new StringBuilder();
+        function.append("export function ").append(name).append("(value: any): any {\n");
+        if (t instanceof PrimitiveType) {
+            function.append("  return value == null ? value : new Date(value);\n");
+        } else if (t instanceof ObjectType o) {
+            function.append("  if (value != null) {\n");
+            o.getFields().forEach(field -> printRevive(function, field.getType(), "value." + field.getName(), "    "));
+            function.append("  }\n");
+            function.append("  return value;\n");
+        } else if (t instanceof UnionType u) {
+            function.append("  switch (value?.['").append(u.getDiscriminator()).append("']) {\n");
+            u.getVariants().stream().filter(variant -> containsDate(variant.type())).forEach(variant -> {
+                addFunction(variant.type());
+                function.append("    case '").append(variant.tag().replace("'", "\\'")).append("': return ")
+                        .append(functionName(variant.type())).append("(value);\n");
+            });
+            function.append("  }\n");
+            function.append("  return value;\n");
+        } else {
+            printRevive(function, t, "value", "  ");
+            function.append("  return value;\n");
+        }
+        function.append("}\n");
+        functions.put(name, function.toString());
+    }
+
+    private void printRevive(StringBuilder function, Type t, String target, String indent) {
+        if (!containsDate(t)) {
+            return;
+        }
+
+        if (t instanceof PrimitiveType) {
+            function.append(indent).append("if (").append(target).append(" != null) ").append(target).append(" = new Date(").append(target).append(");\n");
+        } else if (t instanceof NamedType) {
+            addFunction(t);
+            function.append(indent).append(functionName(t)).append("(").append(target).append(");\n");
+        } else if (t instanceof ArrayType arr) {
+            String index = "i" + variables++;
+            function.append(indent).append("if (").append(target).append(" != null) {\n");
+            function.append(indent).append("  for (let ").append(index).append(" = 0; ").append(index).append(" < ").append(target).append(".length; ").append(index).append("++) {\n");
+            printRevive(function, arr.getSubType(), target + "[" + index + "]", indent + "    ");
+            function.append(indent).append("  }\n");
+            function.append(indent).append("}\n");
+        } else if (t instanceof MapType map) {
+            String key = "k" + variables++;
+            function.append(indent).append("if (").append(target).append(" != null) {\n");
+            function.append(indent).append("  for (const ").append(key).append(" in ").append(target).append(") {\n");
+            printRevive(function, map.getValueSubType(), target + "[" + key + "]", indent + "    ");
+            function.append(indent).append("  }\n");
+            function.append(indent).append("}\n");
+        }
+    }
+}
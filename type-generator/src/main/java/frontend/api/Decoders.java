@@ -0,0 +1,84 @@
+package frontend.api;
+
+import frontend.TypeScriptFile;
+import frontend.types.TypeWriter;
+import model.Endpoint;
+import model.TypeContext;
+
+import java.util.*;
+
+import static frontend.api.EndpointWriter.ENDPOINTS_DIR;
+
+/**
+ * Generates the functions parsing, validating and reviving the responses of endpoints annotated with
+ * {@code @OffloadDecoding}. They are shared by the worker and the main thread, which decodes small responses itself.
+ */
+public class Decoders {
+    public static final String DECODERS = "decoders";
+
+    private final TypeContext context;
+    private final String basePath;
+    private final TypeWriter typeWriter;
+    private final DateRevivers dateRevivers;
+    private final List<Endpoint> endpoints;
+
+    public Decoders(TypeContext context, String basePath, TypeWriter typeWriter, DateRevivers dateRevivers, List<Endpoint> endpoints) {
+        this.context = context;
+        this.basePath = basePath;
+        this.typeWriter = typeWriter;
+        this.dateRevivers = dateRevivers;
+        this.endpoints = endpoints.stream().filter(endpoint -> endpoint.getOffloadThreshold() != null).toList();
+    }
+
+    /**
+     * @return true if any endpoint is decoded off the main thread
+     */
+    public boolean isNeeded() {
+        return !endpoints.isEmpty();
+    }
+
+    /**
+     * @param workerUrl The url of the worker module relative to the offload module, as expected by the bundler
+     * @return The decoders, the worker and the module dispatching between them
+     */
+    public List<TypeScriptFile> getFiles(String workerUrl) {
+        TypeScriptFile file = new TypeScriptFile();
+        file.setLocation(basePath + ENDPOINTS_DIR + "/" + DECODERS);
+        file.getImports().add(new TypeScriptFile.Import(file.getImportLocationFor(RuntimeFiles.codec(basePath, Set.of())), null, Set.of("decode")));
+
+        StringBuilder body = new StringBuilder();
+        body.append("export interface Decoded {\n");
+        body.append("  value: unknown;\n");
+        body.append("  issues?: unknown[];\n");
+        body.append("}\n\n");
+        body.append("export const decoders: Record<string, (buffer: ArrayBuffer, contentType: string | null | undefined, validate: boolean) => Decoded> = {\n");
+        endpoints.forEach(endpoint -> {
+            body.append("  '").append(endpoint.getClassName()).append(".").append(endpoint.getName()).append("': (buffer, contentType");
+            String validator = context.validatesResponses() ? typeWriter.printValidator(endpoint.getReturnType(), file, context) : null;
+            if (validator == null) {
+                body.append(") => ({ value: ").append(dateRevivers.revive(endpoint.getReturnType(), "decode(buffer, contentType)", file)).append(" }),\n");
+                return;
+            }
+            body.append(", validate) => {\n");
+            body.append("    const value = decode(buffer, contentType);\n");
+            body.append("    const issues = validate ? (").append(validator).append(")(value) : undefined;\n");
+            body.append("    return { value: ").append(dateRevivers.revive(endpoint.getReturnType(), "value", file)).append(", issues };\n");
+            body.append("  },\n");
+        });
+        body.append("};\n");
+        file.setBody(body.toString());
+
+        return List.of(file, RuntimeFiles.decodeWorker(basePath), RuntimeFiles.offload(basePath, context, workerUrl));
+    }
+
+    /**
+     * @return An expression decoding the given buffer of the endpoint response, adding the needed import to the given file
+     */
+    public String offload(Endpoint endpoint, String buffer, String contentType, String type, TypeScriptFile target) {
+        String location = target.getImportLocationFor(RuntimeFiles.offload(basePath, context, ""));
+        if (target.getImports().stream().noneMatch(imp -> imp.getLocation().equals(location))) {
+            target.getImports().add(new TypeScriptFile.Import(location, null, Set.of("offload")));
+        }
+        return "offload<" + type + ">('" + endpoint.getClassName() + "." + endpoint.getName() + "', " + buffer + ", " + contentType + ", " + endpoint.getOffloadThreshold() + ")";
+    }
+}
@@ -0,0 +1,670 @@
+package frontend.api;
+
+import frontend.TypeScriptFile;
+import model.BinaryFormat;
+import model.Endpoint;
+import model.TypeContext;
+
+import java.util.*;
+
+import static frontend.api.EndpointWriter.ENDPOINTS_DIR;
+
+/**
+ * Static helper modules which are shared by the generated endpoint files. They are only written if at least one
+ * endpoint makes use of them.
+ */
+public class RuntimeFiles {
+
+    public static final String QUERY_CACHE = "query-cache";
+    public static final String BATCHER = "batcher";
+    public static final String STREAM = "stream";
+    public static final String STREAM_OBSERVABLE = "stream-observable";
+    public static final String LATEST = "latest";
+    public static final String ABORTABLE = "abortable";
+    public static final String RESPONSE_VALIDATION = "response-validation";
+    public static final String CODEC = "codec";
+    public static final String ETAG = "etag";
+    public static final String CLIENT = "client";
+    public static final String OFFLOAD = "offload";
+    public static final String DECODE_WORKER = "decode.worker";
+
+    private static final String ETAG_STORE = """
+            interface Entry {
+                etag: string;
+                body: unknown;
+            }
+
+            /**
+             * Keeps the ETag and body of the last `maxEntries` responses, the least recently used entry is evicted first.
+             * Bodies are copied, as the generated clients revive dates in place.
+             */
+            export class EtagStore {
+                private readonly entries = new Map<string, Entry>();
+
+                constructor(private readonly maxEntries: number) {}
+
+                get(key: string): Entry | undefined {
+                    const entry = this.entries.get(key);
+                    if (entry) {
+                        this.entries.delete(key);
+                        this.entries.set(key, entry);
+                    }
+                    return entry;
+                }
+
+                put(key: string, etag: string | null | undefined, body: unknown): void {
+                    this.entries.delete(key);
+                    if (!etag) {
+                        return;
+                    }
+                    this.entries.set(key, { etag, body: structuredClone(body) });
+                    while (this.entries.size > this.maxEntries) {
+                        this.entries.delete(this.entries.keys().next().value!);
+                    }
+                }
+
+                clear(): void {
+                    this.entries.clear();
+                }
+            }
+
+            export const etagStore = new EtagStore(%d);
+            """;
+
+    private RuntimeFiles() {
+    }
+
+    public static TypeScriptFile queryCache(String basePath) {
+        return file(basePath, QUERY_CACHE, """
+                interface Entry {
+                    expiresAt: number;
+                    value: Observable<unknown>;
+                }
+
+                /**
+                 * Shares in-flight requests with the same key and keeps their result for `ttl` milliseconds after completion.
+                 * Once more than `maxEntries` results are stored the least recently used one is evicted.
+                 */
+                export default class QueryCache {
+                    private readonly entries = new Map<string, Entry>();
+
+                    constructor(private readonly maxEntries: number, private readonly ttl: number) {}
+
+                    get<T>(key: string, load: () => Observable<T>): Observable<T> {
+                        const cached = this.entries.get(key);
+                        if (cached) {
+                            this.entries.delete(key);
+                            if (cached.expiresAt > Date.now()) {
+                                this.entries.set(key, cached);
+                                return cached.value as Observable<T>;
+                            }
+                        }
+
+                        const entry = { expiresAt: Infinity } as Entry;
+                        entry.value = load().pipe(
+                            tap({
+                                complete: () => entry.expiresAt = Date.now() + this.ttl,
+                                error: () => this.evict(key, entry),
+                            }),
+                            shareReplay({ bufferSize: 1, refCount: false }),
+                        );
+                        this.entries.set(key, entry);
+                        while (this.entries.size > this.maxEntries) {
+                            this.entries.delete(this.entries.keys().next().value!);
+                        }
+                        return entry.value as Observable<T>;
+                    }
+
+                    clear(): void {
+                        this.entries.clear();
+                    }
+
+                    private evict(key: string, entry: Entry): void {
+                        if (this.entries.get(key) === entry) {
+                            this.entries.delete(key);
+                        }
+                    }
+                }
+                """, new TypeScriptFile.Import("rxjs", null, Set.of("Observable", "shareReplay", "tap")));
+    }
+
+    public static TypeScriptFile batcher(String basePath) {
+        return file(basePath, BATCHER, """
+                interface Pending<V> {
+                    resolve: (value: V) => void;
+                    reject: (error: unknown) => void;
+                }
+
+                /**
+                 * Collects all loads within `window` milliseconds (0: the current tick) and resolves them with a single call of
+                 * `loadMany`. The returned items are matched to the requested keys with `keyOf`.
+                 */
+                export default class Batcher<K, V> {
+                    private queue = new Map<K, Pending<V>[]>();
+                    private timer?: ReturnType<typeof setTimeout>;
+
+                    constructor(
+                        private readonly loadMany: (keys: K[]) => Promise<V[]>,
+                        private readonly keyOf: (value: V) => K,
+                        private readonly window = 0,
+                        private readonly maxBatchSize = 100,
+                    ) {}
+
+                    load(key: K): Promise<V> {
+                        return new Promise<V>((resolve, reject) => {
+                            const pending = this.queue.get(key);
+                            if (pending) {
+                                pending.push({ resolve, reject });
+                            } else {
+                                this.queue.set(key, [{ resolve, reject }]);
+                            }
+
+                            if (this.queue.size >= this.maxBatchSize) {
+                                this.flush();
+                            } else if (this.timer === undefined) {
+                                this.timer = setTimeout(() => this.flush(), this.window);
+                            }
+                        });
+                    }
+
+                    private flush(): void {
+                        clearTimeout(this.timer);
+                        this.timer = undefined;
+                        const batch = this.queue;
+                        this.queue = new Map();
+                        if (batch.size === 0) {
+                            return;
+                        }
+
+                        this.loadMany([...batch.keys()]).then(values => {
+                            for (const value of values) {
+                                const key = this.keyOf(value);
+                                batch.get(key)?.forEach(pending => pending.resolve(value));
+                                batch.delete(key);
+                            }
+                            batch.forEach((pending, key) => {
+                                const error = new Error(`No result for ${String(key)}`);
+                                pending.forEach(p => p.reject(error));
+                            });
+                        }, error => batch.forEach(pending => pending.forEach(p => p.reject(error))));
+                    }
+                }
+                """);
+    }
+
+    public static TypeScriptFile stream(String basePath) {
+        return file(basePath, STREAM, """
+                export type StreamFormat = 'ndjson' | 'sse';
+
+                const ACCEPT: Record<StreamFormat, string> = {
+                    ndjson: 'application/x-ndjson',
+                    sse: 'text/event-stream',
+                };
+
+                /**
+                 * Requests `url` and yields every item of the NDJSON or server-sent event stream as soon as it is received.
+                 * Breaking out of the iteration or aborting the signal of `init` cancels the request. `send` replaces the
+                 * global fetch, e.g. to pass the request through the interceptors of a client, `revive` converts every
+                 * parsed item, e.g. its dates.
+                 */
+                export async function* stream<T>(url: string, format: StreamFormat, init: RequestInit = {},
+                                                 send: (request: Request) => Promise<Response> = request => fetch(request),
+                                                 revive: (item: any) => T = item => item): AsyncGenerator<T> {
+                    const headers = new Headers(init.headers);
+                    headers.set('accept', ACCEPT[format]);
+                    const response = await send(new Request(url, { ...init, headers }));
+                    if (!response.ok || !response.body) {
+                        throw new Error(`Request to ${url} failed with status ${response.status}`);
+                    }
+
+                    const reader = response.body.getReader();
+                    const decoder = new TextDecoder();
+                    const separator = format === 'sse' ? /\\r?\\n\\r?\\n/ : /\\r?\\n/;
+                    let buffer = '';
+                    try {
+                        for (;;) {
+                            const { done, value } = await reader.read();
+                            buffer += decoder.decode(value, { stream: !done });
+                            const chunks = buffer.split(separator);
+                            buffer = done ? '' : chunks.pop()!;
+                            for (const chunk of chunks) {
+                                const item = format === 'sse' ? eventData(chunk) : chunk.trim();
+                                if (item) {
+                                    yield revive(JSON.parse(item));
+                                }
+                            }
+                            if (done) {
+                                return;
+                            }
+                        }
+                    } finally {
+                        await reader.cancel().catch(() => undefined);
+                    }
+                }
+
+                function eventData(event: string): string {
+                    return event.split(/\\r?\\n/)
+                        .filter(line => line.startsWith('data:'))
+                        .map(line => line.slice(line.startsWith('data: ') ? 6 : 5))
+                        .join('\\n');
+                }
+                """);
+    }
+
+    public static TypeScriptFile streamObservable(String basePath) {
+        return file(basePath, STREAM_OBSERVABLE, """
+                /**
+                 * Emits every item of the stream as soon as it is received, unsubscribing cancels the request.
+                 */
+                export default function streamObservable<T>(url: string, format: StreamFormat, init: RequestInit = {},
+                                                            revive?: (item: any) => T): Observable<T> {
+                    return new Observable<T>(subscriber => {
+                        const controller = new AbortController();
+                        (async () => {
+                            for await (const item of stream<T>(url, format, { ...init, signal: controller.signal }, undefined, revive)) {
+                                subscriber.next(item);
+                            }
+                            subscriber.complete();
+                        })().catch(error => subscriber.error(error));
+                        return () => controller.abort();
+                    });
+                }
+                """,
+                new TypeScriptFile.Import("rxjs", null, Set.of("Observable")),
+                new TypeScriptFile.Import("./" + STREAM, null, Set.of("stream", "StreamFormat")));
+    }
+
+    public static TypeScriptFile latest(String basePath) {
+        return file(basePath, LATEST, """
+                const controllers = new Map<string, AbortController>();
+
+                /**
+                 * Aborts the previous request started with the same key and returns the signal for the next one, such that only the
+                 * latest request e.g. of a search-as-you-type field completes.
+                 */
+                export function latestSignal(key: string): AbortSignal {
+                    controllers.get(key)?.abort();
+                    const controller = new AbortController();
+                    controllers.set(key, controller);
+                    return controller.signal;
+                }
+
+                export async function latest<T>(key: string, request: (signal: AbortSignal) => Promise<T>): Promise<T> {
+                    const signal = latestSignal(key);
+                    try {
+                        return await request(signal);
+                    } finally {
+                        if (controllers.get(key)?.signal === signal) {
+                            controllers.delete(key);
+                        }
+                    }
+                }
+                """);
+    }
+
+    public static TypeScriptFile abortable(String basePath) {
+        return file(basePath, ABORTABLE, """
+                /**
+                 * Unsubscribes from `request` and errors with the abort reason as soon as `signal` is aborted.
+                 */
+                export default function abortable<T>(request: Observable<T>, signal?: AbortSignal): Observable<T> {
+                    if (!signal) {
+                        return request;
+                    }
+
+                    return new Observable<T>(subscriber => {
+                        if (signal.aborted) {
+                            subscriber.error(signal.reason);
+                            return;
+                        }
+
+                        const subscription = request.subscribe(subscriber);
+                        const abort = () => {
+                            subscription.unsubscribe();
+                            subscriber.error(signal.reason);
+                        };
+                        signal.addEventListener('abort', abort, { once: true });
+                        return () => {
+                            signal.removeEventListener('abort', abort);
+                            subscription.unsubscribe();
+                        };
+                    });
+                }
+                """, new TypeScriptFile.Import("rxjs", null, Set.of("Observable")));
+    }
+
+    /**
+     * @param devMode A typescript expression which is true in development builds, it and its imports are only used if
+     *                responses are only validated in development
+     */
+    public static TypeScriptFile responseValidation(String basePath, TypeContext context, String devMode, TypeScriptFile.Import... imports) {
+        double rate = context.getResponseValidationRate() > 0 ? context.getResponseValidationRate() : 1;
+        String condition = context.isResponseValidationDevOnly() ? devMode + " && Math.random() < rate" : "Math.random() < rate";
+        return file(basePath, RESPONSE_VALIDATION, """
+                export interface ResponseValidationFailure {
+                    endpoint: string;
+                    issues: unknown[];
+                    data: unknown;
+                }
+
+                let rate = %s;
+                let handler = (failure: ResponseValidationFailure) =>
+                    console.warn(`Response of ${failure.endpoint} does not match the generated model`, failure.issues);
+
+                /**
+                 * Replaces the default handler, which logs a warning, e.g. to report contract drift to a monitoring service.
+                 */
+                export function onValidationFailure(onFailure: (failure: ResponseValidationFailure) => void): void {
+                    handler = onFailure;
+                }
+
+                /**
+                 * Changes the share of responses which are validated, between 0 (none) and 1 (all).
+                 */
+                export function setValidationRate(validationRate: number): void {
+                    rate = validationRate;
+                }
+
+                /**
+                 * @return true if the next response should be validated
+                 */
+                export function shouldValidate(): boolean {
+                    return %s;
+                }
+
+                export function reportIssues(data: unknown, endpoint: string, issues: unknown[] | undefined): void {
+                    if (issues && issues.length > 0) {
+                        handler({ endpoint, issues, data });
+                    }
+                }
+
+                export function validateResponse<T>(data: T, endpoint: string, validate: (data: unknown) => unknown[] | undefined): T {
+                    if (shouldValidate()) {
+                        reportIssues(data, endpoint, validate(data));
+                    }
+                    return data;
+                }
+                """.formatted(rate, condition), context.isResponseValidationDevOnly() ? imports : new TypeScriptFile.Import[0]);
+    }
+
+    /**
+     * @return All binary formats which are produced or consumed by at least one endpoint
+     */
+    public static Set<BinaryFormat> binaryFormats(List<Endpoint> endpoints) {
+        Set<BinaryFormat> formats = EnumSet.noneOf(BinaryFormat.class);
+        endpoints.forEach(endpoint -> {
+            endpoint.getProduces().stream().map(BinaryFormat::of).filter(Objects::nonNull).forEach(formats::add);
+            if (endpoint.getBody() != null && endpoint.getBinaryRequestFormat() != null) {
+                formats.add(endpoint.getBinaryRequestFormat());
+            }
+        });
+        return formats;
+    }
+
+    /**
+     * Only the libraries of the given formats are imported, such that unused decoders are not bundled.
+     */
+    public static TypeScriptFile codec(String basePath, Set<BinaryFormat> formats) {
+        List<TypeScriptFile.Import> imports = new ArrayList<>();
+        StringBuilder decode = new StringBuilder();
+        StringBuilder encode = new StringBuilder();
+        if (formats.contains(BinaryFormat.CBOR)) {
+            imports.add(new TypeScriptFile.Import("cbor-x", null, Set.of("decode as decodeCbor", "encode as encodeCbor")));
+            decode.append("""
+                        if (contentType?.startsWith('application/cbor')) {
+                            return decodeCbor(bytes);
+                        }
+                    """);
+            encode.append("""
+                        if (contentType.startsWith('application/cbor')) {
+                            return encodeCbor(data);
+                        }
+                    """);
+        }
+        if (formats.contains(BinaryFormat.MSGPACK)) {
+            imports.add(new TypeScriptFile.Import("@msgpack/msgpack", null, Set.of("decode as decodeMsgpack", "encode as encodeMsgpack")));
+            decode.append("""
+                        if (contentType?.startsWith('application/x-msgpack') || contentType?.startsWith('application/msgpack')) {
+                            return decodeMsgpack(bytes);
+                        }
+                    """);
+            encode.append("""
+                        if (contentType.startsWith('application/x-msgpack') || contentType.startsWith('application/msgpack')) {
+                            return encodeMsgpack(data);
+                        }
+                    """);
+        }
+
+        return file(basePath, CODEC, """
+                /**
+                 * Decodes a response body according to its content type, responses of any other type are parsed as JSON.
+                 */
+                export function decode(data: ArrayBuffer, contentType?: string | null): any {
+                    const bytes = new Uint8Array(data);
+                %s    return bytes.length === 0 ? undefined : JSON.parse(new TextDecoder().decode(bytes));
+                }
+
+                export function encode(data: unknown, contentType: string): ArrayBuffer {
+                    const bytes = encodeBytes(data, contentType);
+                    return bytes.buffer.slice(bytes.byteOffset, bytes.byteOffset + bytes.byteLength) as ArrayBuffer;
+                }
+
+                function encodeBytes(data: unknown, contentType: string): Uint8Array {
+                %s    return new TextEncoder().encode(JSON.stringify(data));
+                }
+                """.formatted(decode, encode), imports.toArray(TypeScriptFile.Import[]::new));
+    }
+
+    /**
+     * A replacement of {@code axios.get} sending the ETag of the last response for the same url and params and reusing
+     * its body if the server answers with 304.
+     */
+    public static TypeScriptFile etagAxios(String basePath, TypeContext context) {
+        return file(basePath, ETAG, ETAG_STORE.formatted(context.getEtagMaxEntries()) + """
+
+                export async function conditionalGet<T>(url: string, config: AxiosRequestConfig = {}): Promise<AxiosResponse<T>> {
+                    const key = axios.getUri({ ...config, url });
+                    const cached = etagStore.get(key);
+                    const response = await axios.get<T>(url, {
+                        ...config,
+                        headers: cached ? { ...config.headers, 'If-None-Match': cached.etag } : config.headers,
+                        validateStatus: (status) => (status >= 200 && status < 300) || (status === 304 && cached !== undefined),
+                    });
+                    if (response.status === 304) {
+                        response.data = structuredClone(cached!.body) as T;
+                    } else {
+                        etagStore.put(key, response.headers['etag'], response.data);
+                    }
+                    return response;
+                }
+                """, new TypeScriptFile.Import("axios", "axios", Set.of("AxiosRequestConfig", "AxiosResponse")));
+    }
+
+    /**
+     * An interceptor sending the ETag of the last response for the same url and params and reusing its body if the server
+     * answers with 304. Only requests with the {@code CONDITIONAL} context are handled, it has to be registered with
+     * {@code provideHttpClient(withInterceptors([conditionalInterceptor]))}.
+     */
+    public static TypeScriptFile etagAngular(String basePath, TypeContext context) {
+        return file(basePath, ETAG, ETAG_STORE.formatted(context.getEtagMaxEntries()) + """
+
+                export const CONDITIONAL = new HttpContextToken<boolean>(() => false);
+                export const CONDITIONAL_CONTEXT = new HttpContext().set(CONDITIONAL, true);
+
+                export const conditionalInterceptor: HttpInterceptorFn = (request, next) => {
+                    if (!request.context.get(CONDITIONAL) || request.method !== 'GET') {
+                        return next(request);
+                    }
+
+                    const key = request.urlWithParams;
+                    const cached = etagStore.get(key);
+                    const conditional = cached ? request.clone({ setHeaders: { 'If-None-Match': cached.etag } }) : request;
+                    return next(conditional).pipe(
+                        tap(event => {
+                            if (event instanceof HttpResponse) {
+                                etagStore.put(key, event.headers.get('etag'), event.body);
+                            }
+                        }),
+                        catchError(error => error instanceof HttpErrorResponse && error.status === 304 && cached
+                            ? of(new HttpResponse({ body: structuredClone(cached.body), headers: error.headers, status: 200, url: error.url ?? undefined }))
+                            : throwError(() => error)),
+                    );
+                };
+                """, new TypeScriptFile.Import("@angular/common/http", null, Set.of("HttpContext", "HttpContextToken", "HttpErrorResponse", "HttpInterceptorFn", "HttpResponse")),
+                new TypeScriptFile.Import("rxjs", null, Set.of("catchError", "of", "tap", "throwError")));
+    }
+
+    /**
+     * The dependency free client used by the {@code Fetch} endpoints, it only relies on {@code fetch} and {@code Request},
+     * which are available in browsers, workers and edge runtimes.
+     */
+    public static TypeScriptFile fetchClient(String basePath) {
+        return file(basePath, CLIENT, """
+                export type Send = (request: Request) => Promise<Response>;
+
+                /**
+                 * Receives every request before it is sent and may replace the request or the response, e.g. to add
+                 * authentication headers or to retry failed requests.
+                 */
+                export type Interceptor = (request: Request, next: Send) => Promise<Response>;
+
+                export class HttpError extends Error {
+                    constructor(readonly response: Response) {
+                        super(`Request to ${response.url} failed with status ${response.status}`);
+                    }
+                }
+
+                let baseUrl = '';
+                let send: Send = request => fetch(request);
+                const interceptors: Interceptor[] = [];
+
+                /**
+                 * @param options.baseUrl Prepended to every url, empty by default
+                 * @param options.fetch Replaces the global fetch, e.g. in tests
+                 */
+                export function configure(options: { baseUrl?: string; fetch?: Send }): void {
+                    baseUrl = options.baseUrl ?? baseUrl;
+                    send = options.fetch ?? send;
+                }
+
+                /**
+                 * Interceptors are called in the order they were added, the returned function removes the interceptor again.
+                 */
+                export function addInterceptor(interceptor: Interceptor): () => void {
+                    interceptors.push(interceptor);
+                    return () => {
+                        const index = interceptors.indexOf(interceptor);
+                        if (index >= 0) {
+                            interceptors.splice(index, 1);
+                        }
+                    };
+                }
+
+                export function url(path: string): string {
+                    return baseUrl + path;
+                }
+
+                export function execute(request: Request): Promise<Response> {
+                    const next = (index: number, current: Request): Promise<Response> => index < interceptors.length
+                        ? interceptors[index](current, next.bind(null, index + 1))
+                        : send(current);
+                    return next(0, request).then(response => {
+                        if (!response.ok) {
+                            throw new HttpError(response);
+                        }
+                        return response;
+                    });
+                }
+
+                export async function json<T>(response: Response): Promise<T> {
+                    const text = await response.text();
+                    return (text.length === 0 ? undefined : JSON.parse(text)) as T;
+                }
+                """);
+    }
+
+    /**
+     * @param workerUrl The url of the worker module relative to the offload module, as expected by the bundler
+     */
+    public static TypeScriptFile offload(String basePath, TypeContext context, String workerUrl) {
+        List<TypeScriptFile.Import> imports = new ArrayList<>();
+        imports.add(new TypeScriptFile.Import("./" + Decoders.DECODERS, null, Set.of("Decoded", "decoders")));
+        if (context.validatesResponses()) {
+            imports.add(new TypeScriptFile.Import("./" + RESPONSE_VALIDATION, null, Set.of("reportIssues", "shouldValidate")));
+        }
+
+        return file(basePath, OFFLOAD, """
+                interface Pending {
+                    resolve: (decoded: Decoded) => void;
+                    reject: (error: unknown) => void;
+                }
+
+                let worker: Worker | undefined;
+                let nextId = 0;
+                const pending = new Map<number, Pending>();
+
+                function getWorker(): Worker {
+                    if (!worker) {
+                        worker = new Worker(new URL('%s', import.meta.url), { type: 'module' });
+                        worker.onmessage = ({ data }: MessageEvent) => {
+                            const request = pending.get(data.id);
+                            pending.delete(data.id);
+                            if ('error' in data) {
+                                request?.reject(data.error);
+                            } else {
+                                request?.resolve(data);
+                            }
+                        };
+                        worker.onerror = (event) => {
+                            pending.forEach(request => request.reject(event));
+                            pending.clear();
+                            worker?.terminate();
+                            worker = undefined;
+                        };
+                    }
+                    return worker;
+                }
+
+                /**
+                 * Parses, validates and revives the response in a worker if it has at least `threshold` bytes, smaller responses
+                 * are decoded directly as the round trip to the worker would take longer. The buffer is transferred to the
+                 * worker and can not be used afterwards.
+                 */
+                export async function offload<T>(endpoint: string, buffer: ArrayBuffer, contentType: string | null | undefined, threshold: number): Promise<T> {
+                    const validate = %s;
+                    const decoded = buffer.byteLength < threshold || typeof Worker === 'undefined'
+                        ? decoders[endpoint](buffer, contentType, validate)
+                        : await new Promise<Decoded>((resolve, reject) => {
+                            const id = nextId++;
+                            pending.set(id, { resolve, reject });
+                            getWorker().postMessage({ id, endpoint, buffer, contentType, validate }, [buffer]);
+                        });
+                %s    return decoded.value as T;
+                }
+                """.formatted(workerUrl,
+                        context.validatesResponses() ? "shouldValidate()" : "false",
+                        context.validatesResponses() ? "    reportIssues(decoded.value, endpoint, decoded.issues);\n" : ""),
+                imports.toArray(TypeScriptFile.Import[]::new));
+    }
+
+    public static TypeScriptFile decodeWorker(String basePath) {
+        return file(basePath, DECODE_WORKER, """
+                addEventListener('message', (event: MessageEvent) => {
+                    const { id, endpoint, buffer, contentType, validate } = event.data;
+                    try {
+                        postMessage({ id, ...decoders[endpoint](buffer, contentType, validate) });
+                    } catch (error) {
+                        postMessage({ id, error });
+                    }
+                });
+                """, new TypeScriptFile.Import("./" + Decoders.DECODERS, null, Set.of("decoders")));
+    }
+
+    private static TypeScriptFile file(String basePath, String name, String body, TypeScriptFile.Import... imports) {
+        TypeScriptFile file = new TypeScriptFile();
+        file.setLocation(basePath + ENDPOINTS_DIR + "/" + name);
+        file.getImports().addAll(List.of(imports));
+        file.setBody(body);
+        return file;
+    }
+}
@@ -1,15 +1,22 @@
 package frontend.api.angular;
 
 import frontend.TypeScriptFile;
+import frontend.api.DateRevivers;
+import frontend.api.Decoders;
 import frontend.api.EndpointWriter;
+import frontend.api.RuntimeFiles;
 import frontend.types.TypeWriter;
 import lombok.RequiredArgsConstructor;
+import model.Batch;
+import model.BinaryFormat;
 import model.Endpoint;
+import model.PagedEndpoint;
 import model.TypeContext;
 import model.types.ArrayType;
 import model.types.Field;
 import model.types.ObjectType;
 import model.types.PrimitiveType;
+import org.springframework.http.HttpMethod;
 
 import java.util.*;
 
@@ -18,10 +25,12 @@ public class AngularWriter implements EndpointWriter {
 
     private final TypeContext context;
     private final String basePath;
+    private final TypeWriter typeWriter;
+    private DateRevivers dateRevivers;
+    private Decoders decoders;
 
     private final List<TypeScriptFile.Import> defaultImports = List.of(
             new TypeScriptFile.Import("@angular/core", null, Set.of("Injectable")),
-            new TypeScriptFile.Import("rxjs", null, Set.of("Observable")),
             // TODO remove in the future
             new TypeScriptFile.Import("../../../environments/environment", null, Set.of("environment"))
     );
@@ -29,32 +38,109 @@ public class AngularWriter implements EndpointWriter {
     @Override
     public List<TypeScriptFile> printAllEndPoints(List<Endpoint> endpoints) {
         List<TypeScriptFile> files = new ArrayList<>();
+        dateRevivers = new DateRevivers(context, basePath, typeWriter, endpoints);
+        decoders = new Decoders(context, basePath, typeWriter, dateRevivers, endpoints);
 
-        Map<String, List<Endpoint>> endpointMap = new HashMap<>();
+        Map<String, List<Endpoint>> endpointMap = new TreeMap<>();
         endpoints.forEach(endpoint ->
                 endpointMap.computeIfAbsent(endpoint.getClassName(), k -> new ArrayList<>())
                         .add(endpoint)
         );
 
+        TypeScriptFile queryCacheFile = RuntimeFiles.queryCache(basePath);
+        if (endpoints.stream().anyMatch(this::isCached)) {
+            files.add(queryCacheFile);
+        }
+
+        TypeScriptFile batcherFile = RuntimeFiles.batcher(basePath);
+        if (endpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+            files.add(batcherFile);
+        }
+
+        TypeScriptFile abortableFile = RuntimeFiles.abortable(basePath);
+        if (!endpoints.isEmpty()) {
+            files.add(abortableFile);
+        }
+
+        TypeScriptFile latestFile = RuntimeFiles.latest(basePath);
+        if (endpoints.stream().anyMatch(this::isPlainQuery)) {
+            files.add(latestFile);
+        }
+
+        TypeScriptFile streamObservableFile = RuntimeFiles.streamObservable(basePath);
+        if (endpoints.stream().anyMatch(endpoint -> endpoint.getStreamFormat() != null)) {
+            files.add(RuntimeFiles.stream(basePath));
+            files.add(streamObservableFile);
+        }
+
+        if (context.validatesResponses() && !endpoints.isEmpty()) {
+            files.add(responseValidationFile());
+        }
+
+        if (context.isConditionalRequests() && endpoints.stream().anyMatch(endpoint -> endpoint.getHttpMethod().equals(HttpMethod.GET) && endpoint.getStreamFormat() == null)) {
+            files.add(RuntimeFiles.etagAngular(basePath, context));
+        }
+
+        Set<BinaryFormat> binaryFormats = RuntimeFiles.binaryFormats(endpoints);
+        if (!binaryFormats.isEmpty() || decoders.isNeeded()) {
+            files.add(RuntimeFiles.codec(basePath, binaryFormats));
+        }
+
+        if (decoders.isNeeded()) {
+            files.addAll(decoders.getFiles("./" + RuntimeFiles.DECODE_WORKER));
+        }
+
         endpointMap.forEach((className, classEndpoints) -> {
             TypeScriptFile typeScriptFile = new TypeScriptFile();
             setUpFile(typeScriptFile, classEndpoints, className);
+            typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(abortableFile), "abortable", Set.of()));
+            if (classEndpoints.stream().anyMatch(this::isCached)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(queryCacheFile), "QueryCache", Set.of()));
+            }
+            if (classEndpoints.stream().anyMatch(this::isPlainQuery)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(latestFile), null, Set.of("latestSignal")));
+            }
+            if (classEndpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(batcherFile), "Batcher", Set.of()));
+            }
+            if (classEndpoints.stream().anyMatch(endpoint -> endpoint.getStreamFormat() != null)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(streamObservableFile), "streamObservable", Set.of()));
+            }
 
             StringBuilder body = new StringBuilder();
-            body.append(buildHeader(className));
+            body.append(buildHeader(className, classEndpoints));
 
-            classEndpoints.forEach(endpoint -> body.append(buildEndpoint(typeScriptFile, endpoint)));
+            classEndpoints.forEach(endpoint -> {
+                body.append(buildEndpoint(typeScriptFile, endpoint));
+                if (isPlainQuery(endpoint)) {
+                    body.append(buildLatest(typeScriptFile, endpoint));
+                }
+                if (endpoint instanceof PagedEndpoint pagedEndpoint && pagedEndpoint.isCursorPaged()) {
+                    body.append(buildCursorPager(pagedEndpoint));
+                }
+            });
             body.append("}\n");
 
             typeScriptFile.setBody(body.toString());
             files.add(typeScriptFile);
         });
 
+        if (dateRevivers.isNeeded()) {
+            files.add(dateRevivers.getFile());
+        }
         return files;
     }
 
     private void setUpFile(TypeScriptFile typeScriptFile, List<Endpoint> classEndpoints, String className) {
         typeScriptFile.getImports().addAll(defaultImports);
+        TypeScriptFile.Import rxjsImport = new TypeScriptFile.Import("rxjs", null, new HashSet<>(Set.of("Observable")));
+        if (classEndpoints.stream().anyMatch(endpoint -> endpoint instanceof PagedEndpoint pagedEndpoint && pagedEndpoint.isCursorPaged())) {
+            rxjsImport.getImports().addAll(Set.of("defer", "exhaustMap", "startWith", "takeWhile", "tap"));
+        }
+        if (classEndpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+            rxjsImport.getImports().addAll(Set.of("defer", "firstValueFrom"));
+        }
+        typeScriptFile.getImports().add(rxjsImport);
         if (classEndpoints.stream().filter(endpoint -> !endpoint.getParams().isEmpty()).toList().isEmpty()) {
             typeScriptFile.getImports().add(new TypeScriptFile.Import("@angular/common/http", null, Set.of("HttpClient")));
         } else {
@@ -70,40 +156,298 @@ public class AngularWriter implements EndpointWriter {
         typeScriptFile.setLocation(basePath + ENDPOINTS_DIR + "/" + fileName.toLowerCase());
     }
 
-    private StringBuilder buildHeader(String className) {
+    private StringBuilder buildHeader(String className, List<Endpoint> classEndpoints) {
         StringBuilder header = new StringBuilder();
         header.append("const headers = { 'content-type': 'application/json' };\n\n").append("@Injectable({\n    providedIn: 'root',\n})\nexport class ").append(className.replace("Controller", "Service")).append(" {\n").append("    baseURL = environment.serverUrl;\n\n");
+
+        List<Endpoint> cachedEndpoints = classEndpoints.stream().filter(this::isCached).toList();
+        for (Endpoint endpoint : cachedEndpoints) {
+            header.append("    private readonly ").append(endpoint.getName()).append("Cache = new QueryCache(")
+                    .append(endpoint.getCache().maxEntries()).append(", ").append(endpoint.getCache().ttl()).append(");\n");
+        }
+        for (Endpoint endpoint : classEndpoints.stream().filter(e -> e.getBatch() != null).toList()) {
+            header.append(buildBatcher(endpoint));
+        }
+        if (!cachedEndpoints.isEmpty() || classEndpoints.stream().anyMatch(e -> e.getBatch() != null)) {
+            header.append("\n");
+        }
+
         header.append("    constructor(private http: HttpClient) {}\n");
+
+        if (!cachedEndpoints.isEmpty()) {
+            header.append("\n    clearCaches(): void {\n");
+            for (Endpoint endpoint : cachedEndpoints) {
+                header.append("        this.").append(endpoint.getName()).append("Cache.clear();\n");
+            }
+            header.append("    }\n");
+        }
         return header;
     }
 
+    private String buildBatcher(Endpoint endpoint) {
+        Batch batch = endpoint.getBatch();
+        String idType = TypeWriter.printType(batch.idVariable().getType(), context);
+        String itemType = TypeWriter.printType(endpoint.getReturnType(), context);
+        return "    private readonly " + endpoint.getName() + "Batcher = new Batcher<" + idType + ", " + itemType + ">(ids => firstValueFrom(this."
+                + batch.endpoint().getName() + "(ids)), item => item." + batch.idField() + ", " + batch.window() + ", " + batch.maxBatchSize() + ");\n";
+    }
+
+    private boolean isCached(Endpoint endpoint) {
+        return endpoint.getCache() != null && endpoint.getCache().enabled();
+    }
+
     private StringBuilder buildEndpoint(TypeScriptFile typeScriptFile, Endpoint endpoint) {
+        if (endpoint.getStreamFormat() != null) {
+            return buildStreamEndpoint(typeScriptFile, endpoint);
+        }
+
         StringBuilder endpointString = new StringBuilder();
 
         String returnType = TypeWriter.printType(endpoint.getReturnType(), context);
         String urlBody = endpoint.getBody() != null ? "body" : "null";
 
         endpointString.append("\n    ").append(endpoint.getName()).append("(");
-        endpointString.append(buildEndpointInputs(typeScriptFile, endpoint));
+        endpointString.append(withSignal(buildEndpointInputs(typeScriptFile, endpoint)));
         endpointString.append("): Observable<");
         endpointString.append(returnType);
         typeScriptFile.addImport(endpoint.getReturnType(), context);
         endpointString.append("> {\n");
 
-        if (!endpoint.getParams().isEmpty()) {
+        boolean cached = isCached(endpoint);
+        boolean batched = endpoint.getBatch() != null;
+        int paramCount = endpoint.getParams().size();
+        if (paramCount > 0 && (cached || !batched)) {
             endpointString.append(buildParams(endpoint.getParams()));
         }
+
         String httpMethod = endpoint.getHttpMethod().toString().toLowerCase();
-        endpointString.append("        return this.http.").append(httpMethod).append("<").append(returnType).append(">(this.baseURL + `").append(endpoint.getUrl().replace("{", "${")).append("`, ");
-        if (!httpMethod.equals("get") && !httpMethod.equals("delete")) {
-            endpointString.append(urlBody).append(", ");
+        String url = "this.baseURL + `" + endpoint.getUrl().replace("{", "${") + "`";
+        if (cached) {
+            endpointString.append("        const url = ").append(url).append(";\n");
+            url = "url";
+        }
+
+        StringBuilder request = new StringBuilder();
+        if (batched) {
+            request.append("defer(() => this.").append(endpoint.getName()).append("Batcher.load(").append(endpoint.getBatch().idVariable().getName()).append("))");
+        } else {
+            request.append("this.http.").append(httpMethod);
+            if (!endpoint.hasRawResponse()) {
+                request.append("<").append(returnType).append(">");
+            }
+            request.append("(").append(url).append(", ");
+            if (!httpMethod.equals("get") && !httpMethod.equals("delete")) {
+                request.append(buildRequestBody(typeScriptFile, endpoint, urlBody)).append(", ");
+            }
+            request.append("{ headers").append(buildWireHeaders(endpoint)).append(paramCount > 0 ? ", params" : "");
+            if (context.isConditionalRequests() && httpMethod.equals("get")) {
+                addEtagImport(typeScriptFile);
+                request.append(", context: CONDITIONAL_CONTEXT");
+            }
+            if (endpoint.hasRawResponse()) {
+                request.append(", observe: 'response', responseType: 'arraybuffer'");
+            }
+            request.append(" })");
+            request.append(buildResponseMapping(typeScriptFile, endpoint));
+        }
+
+        if (cached) {
+            endpointString.append("        return abortable(this.").append(endpoint.getName()).append("Cache.get(").append(paramCount > 0 ? "url + '?' + params.toString()" : "url");
+            endpointString.append(", () => ").append(request).append("), signal);\n    }\n");
+        } else {
+            endpointString.append("        return abortable(").append(request).append(", signal);\n    }\n");
+        }
+
+        return endpointString;
+    }
+
+    /**
+     * Validates a sample of the responses against the generated models if configured and revives the contained dates.
+     * Offloaded responses are decoded as a whole by the worker.
+     */
+    private String buildResponseMapping(TypeScriptFile typeScriptFile, Endpoint endpoint) {
+        if (endpoint.getOffloadThreshold() != null) {
+            typeScriptFile.getImports().stream()
+                    .filter(imp -> imp.getLocation().equals("rxjs"))
+                    .forEach(imp -> imp.getImports().add("switchMap"));
+            String offload = decoders.offload(endpoint, "response.body!", "response.headers.get('content-type')", TypeWriter.printType(endpoint.getReturnType(), context), typeScriptFile);
+            return ".pipe(switchMap(response => " + offload + "))";
         }
-        int paramCount = endpoint.getParams().size();
-        endpointString.append("{ headers").append(paramCount > 0 ? ", params" : "").append(" });\n    }\n");
+
+        List<String> operators = new ArrayList<>();
+        if (endpoint.hasBinaryResponse()) {
+            addCodecImport(typeScriptFile, "decode");
+            operators.add("map(response => decode(response.body!, response.headers.get('content-type')))");
+        }
+        String validator = context.validatesResponses() ? typeWriter.printValidator(endpoint.getReturnType(), typeScriptFile, context) : null;
+        if (validator != null) {
+            String location = typeScriptFile.getImportLocationFor(responseValidationFile());
+            if (typeScriptFile.getImports().stream().noneMatch(imp -> imp.getLocation().equals(location))) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(location, null, Set.of("validateResponse")));
+            }
+            operators.add("map(data => validateResponse(data, '" + endpoint.getClassName() + "." + endpoint.getName() + "', " + validator + "))");
+        }
+
+        String revived = dateRevivers.revive(endpoint.getReturnType(), "data", typeScriptFile);
+        if (!revived.equals("data")) {
+            operators.add("map(data => " + revived + ")");
+        }
+
+        if (operators.isEmpty()) {
+            return "";
+        }
+        typeScriptFile.getImports().stream()
+                .filter(imp -> imp.getLocation().equals("rxjs"))
+                .forEach(imp -> imp.getImports().add("map"));
+        return ".pipe(" + String.join(", ", operators) + ")";
+    }
+
+    /**
+     * Binary responses are requested as array buffer and decoded according to their content type, the accept header
+     * lists the produced types in the order declared in the mapping.
+     */
+    private String buildWireHeaders(Endpoint endpoint) {
+        List<String> headers = new ArrayList<>();
+        if (endpoint.hasBinaryResponse()) {
+            headers.add("accept: '" + String.join(", ", endpoint.getProduces()) + "'");
+        }
+        if (endpoint.getBody() != null && endpoint.getBinaryRequestFormat() != null) {
+            headers.add("'content-type': '" + endpoint.getBinaryRequestFormat().getMediaType() + "'");
+        }
+        if (headers.isEmpty()) {
+            return "";
+        }
+        return ": { ...headers, " + String.join(", ", headers) + " }";
+    }
+
+    private String buildRequestBody(TypeScriptFile typeScriptFile, Endpoint endpoint, String body) {
+        if (endpoint.getBody() == null || endpoint.getBinaryRequestFormat() == null) {
+            return body;
+        }
+        addCodecImport(typeScriptFile, "encode");
+        return "encode(" + body + ", '" + endpoint.getBinaryRequestFormat().getMediaType() + "')";
+    }
+
+    private void addCodecImport(TypeScriptFile typeScriptFile, String name) {
+        String location = typeScriptFile.getImportLocationFor(RuntimeFiles.codec(basePath, Set.of()));
+        Optional<TypeScriptFile.Import> importOptional = typeScriptFile.getImports()
+                .stream()
+                .filter(imp -> imp.getLocation().equals(location))
+                .findFirst();
+
+        if (importOptional.isPresent()) {
+            importOptional.get().getImports().add(name);
+        } else {
+            typeScriptFile.getImports().add(new TypeScriptFile.Import(location, null, new HashSet<>(Set.of(name))));
+        }
+    }
+
+    private void addEtagImport(TypeScriptFile typeScriptFile) {
+        String location = typeScriptFile.getImportLocationFor(RuntimeFiles.etagAngular(basePath, context));
+        if (typeScriptFile.getImports().stream().noneMatch(imp -> imp.getLocation().equals(location))) {
+            typeScriptFile.getImports().add(new TypeScriptFile.Import(location, null, Set.of("CONDITIONAL_CONTEXT")));
+        }
+    }
+
+    private TypeScriptFile responseValidationFile() {
+        return RuntimeFiles.responseValidation(basePath, context, "isDevMode()", new TypeScriptFile.Import("@angular/core", null, Set.of("isDevMode")));
+    }
+
+    private StringBuilder buildStreamEndpoint(TypeScriptFile typeScriptFile, Endpoint endpoint) {
+        StringBuilder endpointString = new StringBuilder();
+
+        String itemType = TypeWriter.printType(((ArrayType) endpoint.getReturnType()).getSubType(), context);
+        endpointString.append("\n    ").append(endpoint.getName()).append("(");
+        endpointString.append(withSignal(buildEndpointInputs(typeScriptFile, endpoint)));
+        endpointString.append("): Observable<").append(itemType).append("> {\n");
+        typeScriptFile.addImport(endpoint.getReturnType(), context);
+
+        String url = "this.baseURL + `" + endpoint.getUrl().replace("{", "${") + "`";
+        if (!endpoint.getParams().isEmpty()) {
+            endpointString.append(buildParams(endpoint.getParams()));
+            endpointString.append("        const query = params.toString();\n");
+            url += " + (query ? '?' + query : '')";
+        }
+        endpointString.append("        return abortable(streamObservable<").append(itemType).append(">(").append(url).append(", ").append(endpoint.getStreamFormat().toTypeScript()).append(", {\n");
+        endpointString.append("            method: '").append(endpoint.getHttpMethod().name()).append("',\n");
+        if (endpoint.getBody() != null) {
+            endpointString.append("            headers,\n");
+            endpointString.append("            body: JSON.stringify(body),\n");
+        }
+        String reviver = dateRevivers.reviver(((ArrayType) endpoint.getReturnType()).getSubType(), typeScriptFile);
+        endpointString.append("        }").append(reviver == null ? "" : ", " + reviver).append("), signal);\n    }\n");
 
         return endpointString;
     }
 
+    private StringBuilder buildCursorPager(PagedEndpoint endpoint) {
+        StringBuilder pager = new StringBuilder();
+
+        Field cursor = endpoint.getCursorVariable();
+        String returnType = TypeWriter.printType(endpoint.getReturnType(), context);
+        String nextCursor = endpoint.getNextCursorField().getName();
+
+        List<String> inputs = new ArrayList<>();
+        List<String> callArgs = new ArrayList<>();
+        if (endpoint.getBody() != null) {
+            inputs.add("body: " + TypeWriter.printType(endpoint.getBody(), context));
+            callArgs.add("body");
+        }
+        for (Field arg : endpoint.getAllVariables()) {
+            if (arg == cursor) {
+                callArgs.add("pageCursor");
+            } else {
+                inputs.add(arg.getName() + (arg.isRequired() ? ": " : "?: ") + TypeWriter.printType(arg.getType(), context));
+                callArgs.add(arg.getName());
+            }
+        }
+        inputs.add("loadMore: Observable<unknown>");
+
+        pager.append("\n    ").append(endpoint.getName()).append("Pages(").append(String.join(", ", inputs)).append("): Observable<").append(returnType).append("> {\n");
+        pager.append("        return defer(() => {\n");
+        pager.append("            let pageCursor: ").append(TypeWriter.printType(cursor.getType(), context)).append(" | undefined = undefined;\n");
+        pager.append("            return loadMore.pipe(\n");
+        pager.append("                startWith(undefined),\n");
+        pager.append("                exhaustMap(() => this.").append(endpoint.getName()).append("(").append(String.join(", ", callArgs)).append(")),\n");
+        pager.append("                tap(page => pageCursor = page.").append(nextCursor).append(" ?? undefined),\n");
+        pager.append("                takeWhile(page => page.").append(nextCursor).append(" != null, true),\n");
+        pager.append("            );\n");
+        pager.append("        });\n");
+        pager.append("    }\n");
+
+        return pager;
+    }
+
+    private boolean isPlainQuery(Endpoint endpoint) {
+        return endpoint.getHttpMethod().equals(HttpMethod.GET) && endpoint.getStreamFormat() == null;
+    }
+
+    /**
+     * A variant of the endpoint which cancels its previous call still in flight, e.g. for search-as-you-type fields.
+     */
+    private StringBuilder buildLatest(TypeScriptFile typeScriptFile, Endpoint endpoint) {
+        List<String> callArgs = new ArrayList<>();
+        if (endpoint.getBody() != null) {
+            callArgs.add("body");
+        }
+        endpoint.getAllVariables().forEach(arg -> callArgs.add(arg.getName()));
+        callArgs.add("latestSignal('" + endpoint.getClassName() + "." + endpoint.getName() + "')");
+
+        StringBuilder latest = new StringBuilder();
+        latest.append("\n    ").append(endpoint.getName()).append("Latest(").append(buildEndpointInputs(typeScriptFile, endpoint)).append("): Observable<")
+                .append(TypeWriter.printType(endpoint.getReturnType(), context)).append("> {\n");
+        latest.append("        return this.").append(endpoint.getName()).append("(").append(String.join(", ", callArgs)).append(");\n");
+        latest.append("    }\n");
+        return latest;
+    }
+
+    private StringBuilder withSignal(StringBuilder inputs) {
+        if (!inputs.isEmpty()) {
+            inputs.append(", ");
+        }
+        return inputs.append("signal?: AbortSignal");
+    }
+
     private StringBuilder buildEndpointInputs(TypeScriptFile typeScriptFile, Endpoint endpoint) {
         StringBuilder endpointInputs = new StringBuilder();
 
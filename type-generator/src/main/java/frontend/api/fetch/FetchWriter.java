@@ -0,0 +1,328 @@
+package frontend.api.fetch;
+
+import frontend.TypeScriptFile;
+import frontend.api.DateRevivers;
+import frontend.api.Decoders;
+import frontend.api.EndpointWriter;
+import frontend.api.RuntimeFiles;
+import frontend.types.TypeWriter;
+import lombok.RequiredArgsConstructor;
+import model.Batch;
+import model.BinaryFormat;
+import model.Endpoint;
+import model.TypeContext;
+import model.types.*;
+
+import java.util.*;
+
+/**
+ * Generates a plain function per endpoint, which only depends on {@code fetch}. Urls are built by a template function per
+ * endpoint and query parameters are appended directly to the query string.
+ */
+@RequiredArgsConstructor
+public class FetchWriter implements EndpointWriter {
+    private final TypeContext context;
+    private final String basePath;
+    private final TypeWriter typeWriter;
+    private DateRevivers dateRevivers;
+    private Decoders decoders;
+
+    @Override
+    public List<TypeScriptFile> printAllEndPoints(List<Endpoint> endpoints) {
+        List<TypeScriptFile> files = new ArrayList<>();
+        dateRevivers = new DateRevivers(context, basePath, typeWriter, endpoints);
+        decoders = new Decoders(context, basePath, typeWriter, dateRevivers, endpoints);
+
+        Map<String, List<Endpoint>> endpointMap = new TreeMap<>();
+        endpoints.forEach(endpoint ->
+                endpointMap.computeIfAbsent(endpoint.getClassName(), k -> new ArrayList<>())
+                        .add(endpoint)
+        );
+
+        TypeScriptFile clientFile = RuntimeFiles.fetchClient(basePath);
+        if(!endpoints.isEmpty()) {
+            files.add(clientFile);
+        }
+
+        TypeScriptFile batcherFile = RuntimeFiles.batcher(basePath);
+        if(endpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+            files.add(batcherFile);
+        }
+
+        TypeScriptFile streamFile = RuntimeFiles.stream(basePath);
+        if(endpoints.stream().anyMatch(endpoint -> endpoint.getStreamFormat() != null)) {
+            files.add(streamFile);
+        }
+
+        if(context.validatesResponses() && !endpoints.isEmpty()) {
+            files.add(responseValidationFile());
+        }
+
+        Set<BinaryFormat> binaryFormats = RuntimeFiles.binaryFormats(endpoints);
+        if(!binaryFormats.isEmpty() || decoders.isNeeded()) {
+            files.add(RuntimeFiles.codec(basePath, binaryFormats));
+        }
+
+        if(decoders.isNeeded()) {
+            files.addAll(decoders.getFiles("./" + RuntimeFiles.DECODE_WORKER + ".ts"));
+        }
+
+        endpointMap.forEach((className, classEndpoints) -> {
+            TypeScriptFile typeScriptFile = new TypeScriptFile();
+            typeScriptFile.setLocation(basePath + ENDPOINTS_DIR + "/" + className);
+            typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(clientFile), null, new HashSet<>(Set.of("url"))));
+            if(classEndpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(batcherFile), "Batcher", Set.of()));
+            }
+            if(classEndpoints.stream().anyMatch(endpoint -> endpoint.getStreamFormat() != null)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(streamFile), null, Set.of("stream")));
+            }
+
+            StringBuilder body = new StringBuilder();
+            classEndpoints.forEach(endpoint -> body.append(printEndpoint(typeScriptFile, endpoint)));
+            classEndpoints.forEach(endpoint -> {
+                if(endpoint.getBody() != null) {
+                    typeScriptFile.addImport(endpoint.getBody(), context);
+                }
+                endpoint.getParams().forEach(field -> typeScriptFile.addImport(field.getType(), context));
+                endpoint.getUrlArgs().forEach(field -> typeScriptFile.addImport(field.getType(), context));
+                typeScriptFile.addImport(endpoint.getReturnType(), context);
+            });
+            body.deleteCharAt(body.length() - 1);
+            typeScriptFile.setBody(body.toString());
+            files.add(typeScriptFile);
+        });
+
+        if(dateRevivers.isNeeded()) {
+            files.add(dateRevivers.getFile());
+        }
+        return files;
+    }
+
+    private String printEndpoint(TypeScriptFile file, Endpoint endpoint) {
+        StringBuilder function = new StringBuilder();
+        if(endpoint.getBatch() == null) {
+            function.append(printUrlTemplate(endpoint));
+        }
+
+        List<String> args = new ArrayList<>();
+        if(endpoint.getBody() != null) {
+            args.add(local(endpoint, "data") + ": " + TypeWriter.printType(endpoint.getBody(), context));
+        }
+        endpoint.getAllVariables().forEach(field ->
+                args.add(field.getName() + (field.isRequired() ? "" : "?") + ": " + TypeWriter.printType(field.getType(), context)));
+        args.add(local(endpoint, "init") + "?: RequestInit");
+
+        if(endpoint.getStreamFormat() != null) {
+            addClientImport(file, "execute");
+            String itemType = TypeWriter.printType(((ArrayType) endpoint.getReturnType()).getSubType(), context);
+            function.append("export function ").append(endpoint.getName()).append("(").append(String.join(", ", args))
+                    .append("): AsyncGenerator<").append(itemType).append("> {\n");
+            function.append(printQuery(endpoint));
+            function.append("  return stream<").append(itemType).append(">(").append(printUrl(endpoint)).append(", ")
+                    .append(endpoint.getStreamFormat().toTypeScript()).append(", ").append(printInit(file, endpoint)).append(", execute");
+            String reviver = dateRevivers.reviver(((ArrayType) endpoint.getReturnType()).getSubType(), file);
+            if(reviver != null) {
+                function.append(", ").append(reviver);
+            }
+            function.append(");\n");
+            function.append("}\n\n");
+            return function.toString();
+        }
+
+        String returnType = TypeWriter.printType(endpoint.getReturnType(), context);
+        if(endpoint.getBatch() != null) {
+            function.append(printBatcher(endpoint));
+            function.append("export function ").append(endpoint.getName()).append("(").append(String.join(", ", args))
+                    .append("): Promise<").append(returnType).append("> {\n");
+            function.append("  return ").append(endpoint.getName()).append("Batcher.load(").append(endpoint.getBatch().idVariable().getName()).append(");\n");
+            function.append("}\n\n");
+            return function.toString();
+        }
+
+        addClientImport(file, "execute");
+        function.append("export async function ").append(endpoint.getName()).append("(").append(String.join(", ", args))
+                .append("): Promise<").append(returnType).append("> {\n");
+        function.append(printQuery(endpoint));
+        String request = "execute(new Request(" + printUrl(endpoint) + ", " + printInit(file, endpoint) + "))";
+        if(endpoint.getReturnType() == PrimitiveType.Void) {
+            function.append("  await ").append(request).append(";\n");
+        } else {
+            function.append("  const __response = await ").append(request).append(";\n");
+            function.append("  return ").append(printResponse(file, endpoint)).append(";\n");
+        }
+        function.append("}\n\n");
+        return function.toString();
+    }
+
+    /**
+     * A function building the url of the endpoint from its path variables, the path is only compiled once.
+     */
+    private String printUrlTemplate(Endpoint endpoint) {
+        String path = endpoint.getUrl();
+        for (Field urlArg : endpoint.getUrlArgs()) {
+            path = path.replace("{" + urlArg.getName() + "}", "${encodeURIComponent(" + printParamValue(templateArg(urlArg), urlArg.getType()) + ")}");
+        }
+
+        List<String> args = endpoint.getUrlArgs().stream()
+                .map(field -> templateArg(field) + ": " + TypeWriter.printType(field.getType(), context))
+                .toList();
+        return "const " + endpoint.getName() + "Url = (" + String.join(", ", args) + ") => url(`" + path + "`);\n\n";
+    }
+
+    /**
+     * A path variable named like the imported url function would shadow it in the template.
+     */
+    private static String templateArg(Field urlArg) {
+        return urlArg.getName().equals("url") ? "__url" : urlArg.getName();
+    }
+
+    private String printUrl(Endpoint endpoint) {
+        String url = endpoint.getName() + "Url(" + String.join(", ", endpoint.getUrlArgs().stream().map(Field::getName).toList()) + ")";
+        return endpoint.getParams().isEmpty() ? url : url + " + __query";
+    }
+
+    /**
+     * Appends every set query parameter to the query string without building an intermediate object.
+     */
+    private String printQuery(Endpoint endpoint) {
+        if(endpoint.getParams().isEmpty()) {
+            return "";
+        }
+
+        StringBuilder query = new StringBuilder("  let __query = '';\n");
+        endpoint.getParams().forEach(param -> {
+            if(param.getType() instanceof ObjectType o) {
+                o.getFields().forEach(field -> printParam(query, field.getName(), param.getName() + "?." + field.getName(), field.getType()));
+            } else {
+                printParam(query, param.getName(), param.getName(), param.getType());
+            }
+        });
+        return query.toString();
+    }
+
+    private void printParam(StringBuilder query, String name, String value, Type type) {
+        String append = "__query += (__query ? '&' : '?') + '" + name + "=' + encodeURIComponent(";
+        if(type instanceof ArrayType arr) {
+            query.append("  if (").append(value).append(" != null) {\n");
+            query.append("    for (let i = 0; i < ").append(value).append(".length; i++) {\n");
+            query.append("      ").append(append).append(printParamValue(value + "[i]", arr.getSubType())).append(");\n");
+            query.append("    }\n");
+            query.append("  }\n");
+        } else {
+            query.append("  if (").append(value).append(" != null) {\n");
+            query.append("    ").append(append).append(printParamValue(value, type)).append(");\n");
+            query.append("  }\n");
+        }
+    }
+
+    private String printParamValue(String value, Type type) {
+        if(type == PrimitiveType.Date && !context.isUseStringAsDate()) {
+            return value + ".toISOString()";
+        }
+        return value;
+    }
+
+    /**
+     * The request options, the given init is applied last and may override them.
+     */
+    private String printInit(TypeScriptFile file, Endpoint endpoint) {
+        List<String> headers = new ArrayList<>();
+        if(endpoint.hasBinaryResponse()) {
+            headers.add("accept: '" + String.join(", ", endpoint.getProduces()) + "'");
+        }
+
+        List<String> init = new ArrayList<>();
+        init.add("method: '" + endpoint.getHttpMethod().name() + "'");
+        if(endpoint.getBody() != null) {
+            BinaryFormat format = endpoint.getBinaryRequestFormat();
+            if(format == null || endpoint.getStreamFormat() != null) {
+                headers.add("'content-type': 'application/json'");
+                init.add("body: JSON.stringify(" + local(endpoint, "data") + ")");
+            } else {
+                addCodecImport(file, "encode");
+                headers.add("'content-type': '" + format.getMediaType() + "'");
+                init.add("body: encode(" + local(endpoint, "data") + ", '" + format.getMediaType() + "')");
+            }
+        }
+        if(!headers.isEmpty()) {
+            init.add("headers: { " + String.join(", ", headers) + " }");
+        }
+        init.add("..." + local(endpoint, "init"));
+        return "{ " + String.join(", ", init) + " }";
+    }
+
+    private String printBatcher(Endpoint endpoint) {
+        Batch batch = endpoint.getBatch();
+        String idType = TypeWriter.printType(batch.idVariable().getType(), context);
+        String itemType = TypeWriter.printType(endpoint.getReturnType(), context);
+        return "const " + endpoint.getName() + "Batcher = new Batcher<" + idType + ", " + itemType + ">((ids) => "
+                + batch.endpoint().getName() + "(ids), (item) => item." + batch.idField() + ", " + batch.window() + ", " + batch.maxBatchSize() + ");\n\n";
+    }
+
+    /**
+     * Validates a sample of the responses against the generated models if configured and revives the contained dates.
+     */
+    private String printResponse(TypeScriptFile file, Endpoint endpoint) {
+        String returnType = TypeWriter.printType(endpoint.getReturnType(), context);
+        if(endpoint.getOffloadThreshold() != null) {
+            return decoders.offload(endpoint, "await __response.arrayBuffer()", "__response.headers.get('content-type')", returnType, file);
+        }
+
+        String data = "await json<" + returnType + ">(__response)";
+        if(endpoint.hasBinaryResponse()) {
+            addCodecImport(file, "decode");
+            data = "decode(await __response.arrayBuffer(), __response.headers.get('content-type')) as " + returnType;
+        } else {
+            addClientImport(file, "json");
+        }
+
+        String validator = context.validatesResponses() ? typeWriter.printValidator(endpoint.getReturnType(), file, context) : null;
+        if(validator == null) {
+            return dateRevivers.revive(endpoint.getReturnType(), data, file);
+        }
+
+        String location = file.getImportLocationFor(responseValidationFile());
+        if(file.getImports().stream().noneMatch(imp -> imp.getLocation().equals(location))) {
+            file.getImports().add(new TypeScriptFile.Import(location, null, Set.of("validateResponse")));
+        }
+        String validated = "validateResponse(" + data + ", '" + endpoint.getClassName() + "." + endpoint.getName() + "', " + validator + ")";
+        return dateRevivers.revive(endpoint.getReturnType(), validated, file);
+    }
+
+    /**
+     * @return The name of a generated parameter, prefixed if a variable of the endpoint has the same name
+     */
+    private static String local(Endpoint endpoint, String name) {
+        return endpoint.getAllVariables().stream().anyMatch(field -> field.getName().equals(name)) ? "__" + name : name;
+    }
+
+    private void addClientImport(TypeScriptFile file, String name) {
+        String location = file.getImportLocationFor(RuntimeFiles.fetchClient(basePath));
+        file.getImports().stream()
+                .filter(imp -> imp.getLocation().equals(location))
+                .forEach(imp -> imp.getImports().add(name));
+    }
+
+    private void addCodecImport(TypeScriptFile file, String name) {
+        String location = file.getImportLocationFor(RuntimeFiles.codec(basePath, Set.of()));
+        Optional<TypeScriptFile.Import> importOptional = file.getImports()
+                .stream()
+                .filter(imp -> imp.getLocation().equals(location))
+                .findFirst();
+
+        if(importOptional.isPresent()) {
+            importOptional.get().getImports().add(name);
+        } else {
+            file.getImports().add(new TypeScriptFile.Import(location, null, new HashSet<>(Set.of(name))));
+        }
+    }
+
+    /**
+     * Workers and edge runtimes do not necessarily define {@code process}, so it is only accessed if present.
+     */
+    private TypeScriptFile responseValidationFile() {
+        return RuntimeFiles.responseValidation(basePath, context,
+                "(globalThis as { process?: { env?: Record<string, string | undefined> } }).process?.env?.NODE_ENV !== 'production'");
+    }
+}
@@ -1,10 +1,16 @@
 package frontend.api.reactQuery;
 
+import frontend.api.DateRevivers;
+import frontend.api.Decoders;
 import frontend.api.EndpointWriter;
+import frontend.api.RuntimeFiles;
 import frontend.types.TypeWriter;
 import frontend.TypeScriptFile;
 import lombok.RequiredArgsConstructor;
+import model.Batch;
+import model.BinaryFormat;
 import model.PagedEndpoint;
+import model.QueryHints;
 import model.TypeContext;
 import model.Endpoint;
 import model.types.*;
@@ -17,6 +23,10 @@ import java.util.stream.Collectors;
 public class ReactQueryWriter implements EndpointWriter {
     private final TypeContext context;
     private final String basePath;
+    private final TypeWriter typeWriter;
+    private DateRevivers dateRevivers;
+    private Decoders decoders;
+    private List<Endpoint> queries = List.of();
 
     private final List<TypeScriptFile.Import> defaultImports = List.of(
             new TypeScriptFile.Import("axios", "axios", Set.of())
@@ -25,35 +35,90 @@ public class ReactQueryWriter implements EndpointWriter {
     @Override
     public List<TypeScriptFile> printAllEndPoints(List<Endpoint> endpoints) {
         List<TypeScriptFile> files = new ArrayList<>();
+        dateRevivers = new DateRevivers(context, basePath, typeWriter, endpoints);
+        decoders = new Decoders(context, basePath, typeWriter, dateRevivers, endpoints);
+        queries = endpoints.stream().filter(this::isPlainQuery).toList();
 
-        Map<String, List<Endpoint>> endpointMap = new HashMap<>();
+        Map<String, List<Endpoint>> endpointMap = new TreeMap<>();
         endpoints.forEach(endpoint ->
             endpointMap.computeIfAbsent(endpoint.getClassName(), k -> new ArrayList<>())
                     .add(endpoint)
         );
 
+        TypeScriptFile batcherFile = RuntimeFiles.batcher(basePath);
+        if(endpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+            files.add(batcherFile);
+        }
+
+        TypeScriptFile latestFile = RuntimeFiles.latest(basePath);
+        if(endpoints.stream().anyMatch(this::isPlainQuery)) {
+            files.add(latestFile);
+        }
+
+        TypeScriptFile streamFile = RuntimeFiles.stream(basePath);
+        if(endpoints.stream().anyMatch(endpoint -> endpoint.getStreamFormat() != null)) {
+            files.add(streamFile);
+        }
+
+        if(context.validatesResponses() && !endpoints.isEmpty()) {
+            files.add(responseValidationFile());
+        }
+
+        if(context.isConditionalRequests() && endpoints.stream().anyMatch(endpoint -> endpoint.getHttpMethod().equals(HttpMethod.GET) && endpoint.getStreamFormat() == null)) {
+            files.add(RuntimeFiles.etagAxios(basePath, context));
+        }
+
+        Set<BinaryFormat> binaryFormats = RuntimeFiles.binaryFormats(endpoints);
+        if(!binaryFormats.isEmpty() || decoders.isNeeded()) {
+            files.add(RuntimeFiles.codec(basePath, binaryFormats));
+        }
+
+        if(decoders.isNeeded()) {
+            files.addAll(decoders.getFiles("./" + RuntimeFiles.DECODE_WORKER + ".ts"));
+        }
+
         endpointMap.forEach((className, classEndpoints) -> {
             TypeScriptFile typeScriptFile = new TypeScriptFile();
             typeScriptFile.getImports().addAll(defaultImports);
 
             TypeScriptFile.Import reactQueryImport = new TypeScriptFile.Import("@tanstack/react-query", null, new HashSet<>());
 
-            if(classEndpoints.stream().anyMatch(e -> e.getHttpMethod().equals(HttpMethod.GET))) {
+            if(classEndpoints.stream().anyMatch(e -> e.getHttpMethod().equals(HttpMethod.GET) || e.getStreamFormat() != null)) {
                 reactQueryImport.getImports().addAll(Set.of("useQuery", "UseQueryOptions"));
             }
 
-            if(classEndpoints.stream().anyMatch(e -> e.getHttpMethod().equals(HttpMethod.GET) && e instanceof PagedEndpoint)) {
+            if(classEndpoints.stream().anyMatch(e -> e.getHttpMethod().equals(HttpMethod.GET) && e.getStreamFormat() == null && e instanceof PagedEndpoint)) {
                 reactQueryImport.getImports().addAll(Set.of("useInfiniteQuery", "UseInfiniteQueryOptions"));
             }
 
-            if(classEndpoints.stream().anyMatch(e -> !e.getHttpMethod().equals(HttpMethod.GET))) {
+            if(classEndpoints.stream().anyMatch(e -> !e.getHttpMethod().equals(HttpMethod.GET) && e.getStreamFormat() == null)) {
                 reactQueryImport.getImports().addAll(Set.of("useMutation", "UseMutationOptions"));
+                typeScriptFile.getImports().add(new TypeScriptFile.Import("react", null, Set.of("useRef")));
+            }
+
+            if(classEndpoints.stream().anyMatch(e -> e.getStreamFormat() != null)) {
+                reactQueryImport.getImports().add("experimental_streamedQuery as streamedQuery");
+            }
+
+            if(classEndpoints.stream().anyMatch(e -> !optimisticQueries(e).isEmpty())) {
+                reactQueryImport.getImports().addAll(Set.of("useQueryClient", "QueryClient"));
             }
             typeScriptFile.getImports().add(reactQueryImport);
 
             typeScriptFile.setLocation(basePath + ENDPOINTS_DIR + "/" + className);
-            StringBuilder body = new StringBuilder("export default class " + className + " {\n");
-            classEndpoints.stream().map(this::printEndPoint).forEach(body::append);
+            StringBuilder body = new StringBuilder();
+            if(classEndpoints.stream().anyMatch(endpoint -> endpoint.getBatch() != null)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(batcherFile), "Batcher", Set.of()));
+                classEndpoints.stream().filter(endpoint -> endpoint.getBatch() != null).map(endpoint -> printBatcher(typeScriptFile, endpoint)).forEach(body::append);
+            }
+            if(classEndpoints.stream().anyMatch(endpoint -> endpoint.getStreamFormat() != null)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(streamFile), null, Set.of("stream")));
+            }
+            if(classEndpoints.stream().anyMatch(this::isPlainQuery)) {
+                typeScriptFile.getImports().add(new TypeScriptFile.Import(typeScriptFile.getImportLocationFor(latestFile), null, Set.of("latest")));
+            }
+            body.append("export default class ").append(className).append(" {\n");
+            classEndpoints.stream().map(endpoint -> printEndPoint(typeScriptFile, className, endpoint)).forEach(body::append);
             classEndpoints.forEach(endpoint -> {
                 if(endpoint.getBody() != null) {
                     typeScriptFile.addImport(endpoint.getBody(), context);
@@ -68,22 +133,33 @@ public class ReactQueryWriter implements EndpointWriter {
             files.add(typeScriptFile);
         });
 
+        if(dateRevivers.isNeeded()) {
+            files.add(dateRevivers.getFile());
+        }
         return files;
     }
 
-    private String printEndPoint(Endpoint endpoint) {
-        if(endpoint.getHttpMethod().equals(HttpMethod.GET)){
-            if(endpoint instanceof PagedEndpoint pagedEndpoint) {
-                return printInfiniteQuery(pagedEndpoint);
+    private boolean isPlainQuery(Endpoint endpoint) {
+        return endpoint.getHttpMethod().equals(HttpMethod.GET) && endpoint.getStreamFormat() == null && !(endpoint instanceof PagedEndpoint);
+    }
+
+    private String printEndPoint(TypeScriptFile file, String className, Endpoint endpoint) {
+        if(endpoint.getStreamFormat() != null) {
+            return printStreamQuery(file, className, endpoint);
+        } else if(endpoint.getHttpMethod().equals(HttpMethod.GET)){
+            if(endpoint instanceof PagedEndpoint pagedEndpoint && pagedEndpoint.isCursorPaged()) {
+                return printCursorInfiniteQuery(file, pagedEndpoint);
+            } else if(endpoint instanceof PagedEndpoint pagedEndpoint) {
+                return printInfiniteQuery(file, pagedEndpoint);
             } else {
-                return printQuery(endpoint);
+                return printQuery(file, className, endpoint);
             }
         } else {
-            return printMutation(endpoint);
+            return printMutation(file, endpoint);
         }
     }
 
-    private String printMutation(Endpoint endpoint) {
+    private String printMutation(TypeScriptFile file, Endpoint endpoint) {
         List<Field> sortedParams = endpoint.getAllVariables();
         String returnType = "<" + TypeWriter.printType(endpoint.getReturnType(), context) + ">";
 
@@ -101,32 +177,165 @@ public class ReactQueryWriter implements EndpointWriter {
         }
         args += "options?: Omit<UseMutationOptions" + genericParams + ", 'mutationFn'>";
 
-        StringBuilder method = new StringBuilder("  static " + endpoint.getName() + " = {\n    useMutation: (" + args + ") => ");
-        method.append("useMutation").append(genericParams).append("({");
+        // every call gets its own controller, abort() cancels the latest call the hook tracks
+        StringBuilder method = new StringBuilder("  static " + endpoint.getName() + " = {\n    useMutation: (" + args + ") => {\n");
+        method.append("      const controller = useRef<AbortController | undefined>(undefined);\n");
+        method.append("      const mutation = useMutation").append(genericParams).append("({");
         method.append(" mutationFn: async (");
         if(endpoint.getBody() != null) {
             method.append("data: ").append(TypeWriter.printType(endpoint.getBody(), context));
         }
         method.append( ") => {\n");
-        method.append("      const response = await axios.").append(endpoint.getHttpMethod().name().toLowerCase()).append(returnType);
+        method.append("      controller.current = new AbortController();\n");
+        method.append("      const signal = controller.current.signal;\n");
+        method.append("      const response = await ").append(printRequest(file, endpoint)).append(endpoint.hasRawResponse() ? "<ArrayBuffer>" : returnType);
         method.append("(").append(formatUrl(endpoint));
         if(endpoint.getBody() != null) {
-            method.append(", data");
+            method.append(", ").append(printRequestBody(file, endpoint, "data"));
         } else if(!endpoint.getHttpMethod().equals(HttpMethod.DELETE)) {
             method.append(", null");
         }
         if(!endpoint.getParams().isEmpty()) {
-            method.append(", { params: ").append(printParams(endpoint.getParams())).append(" }");
+            method.append(", { params: ").append(printParams(endpoint.getParams())).append(", signal").append(printWireOptions(file, endpoint)).append(" }");
+        } else {
+            method.append(", { signal").append(printWireOptions(file, endpoint)).append(" }");
         }
         method.append(");\n");
 
-        method.append("      return response.data;\n");
-        method.append("    }, ...options }),\n");
+        method.append("      return ").append(printResponse(file, endpoint)).append(";\n");
+        method.append("    }, ...options });\n");
+        method.append("      return { ...mutation, abort: () => controller.current?.abort() };\n");
+        method.append("    },\n");
+        method.append(printOptimistic(endpoint, args, genericParams));
         method.append("  };\n\n");
         return method.toString();
     }
 
-    private String printInfiniteQuery(PagedEndpoint endpoint) {
+    /**
+     * The plain queries caching the value a mutation sends or returns, such that their cache entries can be patched
+     * directly. Only queries of the same controller and url, which are keyed by at least one variable, are matched
+     * implicitly; others have to be listed with {@code @OptimisticUpdate}. The key of the queries has to be derivable
+     * from the variables of the mutation.
+     */
+    private List<Endpoint> optimisticQueries(Endpoint mutation) {
+        if(mutation.getHttpMethod().equals(HttpMethod.GET) || mutation.getHttpMethod().equals(HttpMethod.DELETE) || mutation.getStreamFormat() != null) {
+            return List.of();
+        }
+
+        String type = optimisticType(mutation);
+        return candidateQueries(mutation).stream()
+                .filter(query -> TypeWriter.printType(query.getReturnType(), context).equals(type))
+                .toList();
+    }
+
+    private List<Endpoint> candidateQueries(Endpoint mutation) {
+        Map<String, String> variables = new HashMap<>();
+        mutation.getAllVariables().forEach(field -> variables.put(field.getName(), TypeWriter.printType(field.getType(), context)));
+        return queries.stream()
+                .filter(query -> mutation.getOptimisticQueries().contains(query.getClassName() + "." + query.getName())
+                        || (query.getClassName().equals(mutation.getClassName()) && query.getUrl().equals(mutation.getUrl()) && !query.getAllVariables().isEmpty()))
+                .filter(query -> query.getAllVariables().stream()
+                        .allMatch(field -> TypeWriter.printType(field.getType(), context).equals(variables.get(field.getName()))))
+                .toList();
+    }
+
+    /**
+     * @return The type of the sent body if some matching query caches it, the returned type otherwise
+     */
+    private String optimisticType(Endpoint mutation) {
+        if(mutation.getBody() != null) {
+            String body = TypeWriter.printType(mutation.getBody(), context);
+            if(candidateQueries(mutation).stream().anyMatch(query -> TypeWriter.printType(query.getReturnType(), context).equals(body))) {
+                return body;
+            }
+        }
+        return TypeWriter.printType(mutation.getReturnType(), context);
+    }
+
+    /**
+     * Callbacks patching the cached queries before the request is sent and rolling them back if it fails. A body of the
+     * cached type replaces the entry, a body with a subset of its fields is merged into it. Otherwise the entries are
+     * only updated from the response. The callbacks passed to {@code useOptimisticMutation} run after the generated ones.
+     */
+    private String printOptimistic(Endpoint endpoint, String args, String genericParams) {
+        List<Endpoint> optimisticQueries = optimisticQueries(endpoint);
+        if(optimisticQueries.isEmpty()) {
+            return "";
+        }
+
+        String type = optimisticType(endpoint);
+        String body = endpoint.getBody() == null ? null : TypeWriter.printType(endpoint.getBody(), context);
+        String patch = null;
+        if(type.equals(body)) {
+            patch = "data";
+        } else if(endpoint.getBody() instanceof ObjectType partial && optimisticQueries.stream().allMatch(query -> query.getReturnType() instanceof ObjectType cached
+                && cached.getFields().stream().map(Field::getName).collect(Collectors.toSet())
+                        .containsAll(partial.getFields().stream().map(Field::getName).toList()))) {
+            patch = "previous === undefined ? previous : { ...previous, ...data }";
+        }
+        boolean returnsCached = TypeWriter.printType(endpoint.getReturnType(), context).equals(type);
+
+        List<Field> sortedParams = endpoint.getAllVariables();
+        String fnParams = getFnParams(sortedParams);
+        String variables = String.join(", ", sortedParams.stream().map(Field::getName).toList());
+
+        StringBuilder method = new StringBuilder();
+        method.append("    optimistic: (queryClient: QueryClient").append(fnParams.isEmpty() ? "" : ", " + fnParams).append(") => {\n");
+        method.append("      const queryKeys = [");
+        method.append(optimisticQueries.stream().map(query -> {
+            List<String> key = new ArrayList<>(List.of("'" + query.getClassName() + "_" + query.getName() + "'"));
+            query.getAllVariables().forEach(field -> key.add(field.getName()));
+            return "[" + String.join(", ", key) + "]";
+        }).collect(Collectors.joining(", ")));
+        method.append("];\n");
+        method.append("      return {\n");
+        if(patch != null) {
+            method.append("        onMutate: async (data: ").append(body).append(") => {\n");
+            method.append("          await Promise.all(queryKeys.map((queryKey) => queryClient.cancelQueries({ queryKey })));\n");
+            method.append("          const snapshot = queryKeys.map((queryKey) => queryClient.getQueryData<").append(type).append(">(queryKey));\n");
+            method.append("          queryKeys.forEach((queryKey) => queryClient.setQueryData<").append(type).append(">(queryKey, (previous) => ").append(patch).append("));\n");
+            method.append("          return { snapshot };\n");
+            method.append("        },\n");
+            method.append("        onError: (_error: unknown, _data: unknown, context: unknown) => {\n");
+            method.append("          const snapshot = (context as { snapshot?: (").append(type).append(" | undefined)[] } | undefined)?.snapshot;\n");
+            method.append("          queryKeys.forEach((queryKey, i) => queryClient.setQueryData(queryKey, snapshot?.[i]));\n");
+            method.append("        },\n");
+        }
+        if(returnsCached) {
+            method.append("        onSuccess: (response: ").append(type).append(") => {\n");
+            method.append("          queryKeys.forEach((queryKey) => queryClient.setQueryData(queryKey, response));\n");
+            method.append("        },\n");
+        } else {
+            method.append("        onSettled: () => Promise.all(queryKeys.map((queryKey) => queryClient.invalidateQueries({ queryKey }))),\n");
+        }
+        method.append("      };\n");
+        method.append("    },\n");
+
+        method.append("    useOptimisticMutation: (").append(args).append(") => {\n");
+        method.append("      const queryClient = useQueryClient();\n");
+        method.append("      const optimistic: Omit<UseMutationOptions").append(genericParams).append(", 'mutationFn'> = ")
+                .append(endpoint.getClassName()).append(".").append(endpoint.getName()).append(".optimistic(queryClient")
+                .append(variables.isEmpty() ? "" : ", " + variables).append(");\n");
+        method.append("      return ").append(endpoint.getClassName()).append(".").append(endpoint.getName()).append(".useMutation(")
+                .append(variables).append(variables.isEmpty() ? "" : ", ").append("{\n");
+        method.append("        ...options,\n");
+        method.append("        onMutate: async (...args) => {\n");
+        method.append("          const generated = await optimistic.onMutate?.(...args);\n");
+        method.append("          const context = await options?.onMutate?.(...args);\n");
+        method.append("          return { ...(context as object | undefined), ...(generated as object | undefined) };\n");
+        method.append("        },\n");
+        for (String callback : List.of("onError", "onSuccess", "onSettled")) {
+            method.append("        ").append(callback).append(": async (...args) => {\n");
+            method.append("          await optimistic.").append(callback).append("?.(...args);\n");
+            method.append("          await options?.").append(callback).append("?.(...args);\n");
+            method.append("        },\n");
+        }
+        method.append("      });\n");
+        method.append("    },\n");
+        return method.toString();
+    }
+
+    private String printInfiniteQuery(TypeScriptFile file, PagedEndpoint endpoint) {
         String key = endpoint.getClassName() + "_" + endpoint.getName();
         List<Field> sortedParams = endpoint.getAllVariables().stream().filter(field -> field != endpoint.getPageVariable()).toList();
 
@@ -147,63 +356,325 @@ public class ReactQueryWriter implements EndpointWriter {
         }
         method.append("], ");
 
-        method.append(" queryFn: async ({ pageParam = 0 }) => {\n");
-        method.append("      const response = await axios.").append(endpoint.getHttpMethod().name().toLowerCase()).append(returnType);
+        method.append(" queryFn: async ({ pageParam = 0, signal }) => {\n");
+        method.append("      const response = await ").append(printRequest(file, endpoint)).append(endpoint.hasRawResponse() ? "<ArrayBuffer>" : returnType);
         method.append("(").append(formatUrl(endpoint));
 
         List<Field> params = endpoint.getParams().stream().filter(field -> field != endpoint.getPageVariable()).toList();
         if(!params.isEmpty()) {
             method.append(", { params: ")
-                    .append(printParams(params).replace("}", ", " + endpoint.getPageVariable().getName() + ": pageParam }}"));
+                    .append(printParams(params).replace("}", ", " + endpoint.getPageVariable().getName() + ": pageParam }, signal" + printWireOptions(file, endpoint) + " }"));
         } else {
-            method.append(", { params: { ").append(endpoint.getPageVariable().getName()).append(": pageParam }}");
+            method.append(", { params: { ").append(endpoint.getPageVariable().getName()).append(": pageParam }, signal").append(printWireOptions(file, endpoint)).append(" }");
         }
         method.append(");\n");
-        method.append("      return response.data;\n");
+        method.append("      return ").append(printResponse(file, endpoint)).append(";\n");
         method.append("    }, \n");
         method.append("    initialPageParam: 0,\n");
-        method.append("    getNextPageParam: (lastPage, pages) => lastPage.length < ");
+        // the page params are used as the pages are no longer counted from the start once maxPages drops some
+        method.append("    getNextPageParam: (lastPage, pages, lastPageParam) => lastPage.length < ");
         method.append(endpoint.getPageSizeVariable().getName());
-        method.append(" ? undefined : pages.length + 1, \n");
+        method.append(" ? undefined : lastPageParam + 1, \n");
+        if(endpoint.isBidirectional()) {
+            method.append("    getPreviousPageParam: (firstPage, pages, firstPageParam) => firstPageParam > 0 ? firstPageParam - 1 : undefined, \n");
+        }
+        method.append(printMaxPages(endpoint));
+        method.append(printQueryHints(endpoint, "    ", "\n"));
         method.append("    ...options }),\n");
         method.append("  };\n\n");
         return method.toString();
     }
 
-    private String printQuery(Endpoint endpoint) {
+    private String printCursorInfiniteQuery(TypeScriptFile file, PagedEndpoint endpoint) {
         String key = endpoint.getClassName() + "_" + endpoint.getName();
-        List<Field> sortedParams = endpoint.getAllVariables();
+        Field cursor = endpoint.getCursorVariable();
+        List<Field> sortedParams = endpoint.getAllVariables().stream().filter(field -> field != cursor).toList();
+
         String returnType = "<" + TypeWriter.printType(endpoint.getReturnType(), context) + ">";
 
         String args = getFnParams(sortedParams);
         if(!args.isEmpty()) {
             args += ", ";
         }
-        args += "options?: Partial<Omit<UseQueryOptions" + returnType + ", 'queryFn'>>";
+        args += "options?: Partial<Omit<Omit<UseInfiniteQueryOptions" + returnType + ", 'select'>, 'queryFn'>>";
 
         StringBuilder method = new StringBuilder("  static " + endpoint.getName() + " = {\n");
         method.append("    queryKey: '").append(key).append("',\n");
-        method.append("    useQuery: (").append(args).append(") => useQuery").append(returnType).append("({");
+        method.append("    useInfiniteQuery: (").append(args).append(") => useInfiniteQuery").append(returnType).append("({");
         method.append(" queryKey: ['").append(key).append("'");
         if(!sortedParams.isEmpty()) {
             method.append(", ").append(String.join(", ", sortedParams.stream().map(Field::getName).toList()));
         }
         method.append("], ");
 
-        method.append("queryFn: async (");
-        method.append(") => {\n");
-        method.append("      const response = await axios.").append(endpoint.getHttpMethod().name().toLowerCase()).append(returnType);
+        method.append(" queryFn: async ({ pageParam, signal }) => {\n");
+        method.append("      const response = await ").append(printRequest(file, endpoint)).append(endpoint.hasRawResponse() ? "<ArrayBuffer>" : returnType);
         method.append("(").append(formatUrl(endpoint));
+
+        List<Field> params = endpoint.getParams().stream().filter(field -> field != cursor).toList();
+        method.append(", { params: ");
+        if(!params.isEmpty()) {
+            method.append(printParams(params).replace("}", ", " + cursor.getName() + ": pageParam }"));
+        } else {
+            method.append("{ ").append(cursor.getName()).append(": pageParam }");
+        }
+        method.append(", signal").append(printWireOptions(file, endpoint)).append(" });\n");
+        method.append("      return ").append(printResponse(file, endpoint)).append(";\n");
+        method.append("    }, \n");
+        method.append("    initialPageParam: undefined as ").append(TypeWriter.printType(cursor.getType(), context)).append(" | undefined,\n");
+        method.append("    getNextPageParam: (lastPage) => lastPage.").append(endpoint.getNextCursorField().getName()).append(" ?? undefined, \n");
+        if(endpoint.getPreviousCursorField() != null) {
+            method.append("    getPreviousPageParam: (firstPage) => firstPage.").append(endpoint.getPreviousCursorField().getName()).append(" ?? undefined, \n");
+        }
+        method.append(printMaxPages(endpoint));
+        method.append(printQueryHints(endpoint, "    ", "\n"));
+        method.append("    ...options }),\n");
+        method.append("  };\n\n");
+        return method.toString();
+    }
+
+    private static String printMaxPages(PagedEndpoint endpoint) {
+        return endpoint.getMaxPages() > 0 ? "    maxPages: " + endpoint.getMaxPages() + ",\n" : "";
+    }
+
+    private String printQuery(TypeScriptFile file, String className, Endpoint endpoint) {
+        String key = endpoint.getClassName() + "_" + endpoint.getName();
+        List<Field> sortedParams = endpoint.getAllVariables();
+        String returnType = "<" + TypeWriter.printType(endpoint.getReturnType(), context) + ">";
+        String variables = String.join(", ", sortedParams.stream().map(Field::getName).toList());
+
+        String fnParams = getFnParams(sortedParams);
+        String args = fnParams.isEmpty() ? "" : fnParams + ", ";
+        String callArgs = variables.isEmpty() ? "" : variables + ", ";
+
+        StringBuilder method = new StringBuilder("  static " + endpoint.getName() + " = {\n");
+        method.append("    queryKey: '").append(key).append("',\n");
+
+        method.append("    fetch: async (").append(args).append("signal?: AbortSignal) => {\n");
+        if(endpoint.getBatch() != null) {
+            method.append("      return ").append(endpoint.getName()).append("Batcher.load(").append(endpoint.getBatch().idVariable().getName()).append(");\n");
+        } else {
+            method.append("      const response = await ").append(printRequest(file, endpoint)).append(endpoint.hasRawResponse() ? "<ArrayBuffer>" : returnType);
+            method.append("(").append(formatUrl(endpoint));
+            if(!endpoint.getParams().isEmpty()) {
+                method.append(", { params: ").append(printParams(endpoint.getParams())).append(", signal").append(printWireOptions(file, endpoint)).append(" }");
+            } else {
+                method.append(", { signal").append(printWireOptions(file, endpoint)).append(" }");
+            }
+            method.append(");\n");
+            method.append("      return ").append(printResponse(file, endpoint)).append(";\n");
+        }
+        method.append("    },\n");
+
+        method.append("    fetchLatest: (").append(fnParams).append(") => latest('").append(key).append("', (signal) => ")
+                .append(className).append(".").append(endpoint.getName()).append(".fetch(").append(callArgs).append("signal)),\n");
+
+        method.append("    useQuery: (").append(args).append("options?: Partial<Omit<UseQueryOptions").append(returnType).append(", 'queryFn'>>) => useQuery").append(returnType).append("({");
+        method.append(" queryKey: ['").append(key).append("'");
+        if(!variables.isEmpty()) {
+            method.append(", ").append(variables);
+        }
+        method.append("], ");
+
+        method.append("queryFn: ({ signal }) => ").append(className).append(".").append(endpoint.getName()).append(".fetch(").append(callArgs).append("signal), ");
+        method.append(printQueryHints(endpoint, "", " ")).append("...options}),\n");
+        method.append("  };\n\n");
+        return method.toString();
+    }
+
+    private String printStreamQuery(TypeScriptFile file, String className, Endpoint endpoint) {
+        String key = endpoint.getClassName() + "_" + endpoint.getName();
+        List<Field> sortedParams = endpoint.getAllVariables();
+        Type itemType = ((ArrayType) endpoint.getReturnType()).getSubType();
+        String returnType = "<" + TypeWriter.printType(endpoint.getReturnType(), context) + ">";
+
+        List<String> variables = new ArrayList<>();
+        if(endpoint.getBody() != null) {
+            variables.add("data");
+        }
+        sortedParams.forEach(field -> variables.add(field.getName()));
+
+        String args = getFnParams(sortedParams);
+        if(endpoint.getBody() != null) {
+            args = "data: " + TypeWriter.printType(endpoint.getBody(), context) + (args.isEmpty() ? "" : ", " + args);
+        }
+        if(!args.isEmpty()) {
+            args += ", ";
+        }
+
+        StringBuilder method = new StringBuilder("  static " + endpoint.getName() + " = {\n");
+        method.append("    queryKey: '").append(key).append("',\n");
+        method.append("    stream: (").append(args).append("signal?: AbortSignal) => stream<").append(TypeWriter.printType(itemType, context)).append(">(");
+        method.append("axios.getUri({ url: ").append(formatUrl(endpoint));
         if(!endpoint.getParams().isEmpty()) {
-            method.append(", { params: ").append(printParams(endpoint.getParams())).append(" }");
+            method.append(", params: ").append(printParams(endpoint.getParams()));
         }
-        method.append(");\n");
-        method.append("      return response.data;\n");
-        method.append("    }, ...options}),\n");
+        method.append(" }), ").append(endpoint.getStreamFormat().toTypeScript()).append(", {\n");
+        method.append("      method: '").append(endpoint.getHttpMethod().name()).append("',\n");
+        if(endpoint.getBody() != null) {
+            method.append("      headers: { 'content-type': 'application/json' },\n");
+            method.append("      body: JSON.stringify(data),\n");
+        }
+        method.append("      credentials: axios.defaults.withCredentials ? 'include' : 'same-origin',\n");
+        method.append("      signal,\n");
+        String reviver = dateRevivers.reviver(itemType, file);
+        method.append("    }").append(reviver == null ? "" : ", undefined, " + reviver).append("),\n");
+
+        method.append("    useQuery: (").append(args).append("options?: Partial<Omit<UseQueryOptions").append(returnType).append(", 'queryFn'>>) => useQuery").append(returnType).append("({");
+        method.append(" queryKey: ['").append(key).append("'");
+        if(!variables.isEmpty()) {
+            method.append(", ").append(String.join(", ", variables));
+        }
+        method.append("], ");
+        method.append("queryFn: streamedQuery({ streamFn: ({ signal }) => ").append(className).append(".").append(endpoint.getName()).append(".stream(");
+        method.append(String.join(", ", variables)).append(variables.isEmpty() ? "" : ", ").append("signal) }), ");
+        method.append(printQueryHints(endpoint, "", " ")).append("...options}),\n");
         method.append("  };\n\n");
         return method.toString();
     }
 
+    private String printBatcher(TypeScriptFile file, Endpoint endpoint) {
+        Batch batch = endpoint.getBatch();
+        Endpoint batchEndpoint = batch.endpoint();
+        String idType = TypeWriter.printType(batch.idVariable().getType(), context);
+        String itemType = TypeWriter.printType(endpoint.getReturnType(), context);
+        String returnType = "<" + TypeWriter.printType(batchEndpoint.getReturnType(), context) + ">";
+
+        StringBuilder batcher = new StringBuilder("const " + endpoint.getName() + "Batcher = new Batcher<" + idType + ", " + itemType + ">(async (ids) => {\n");
+        batcher.append("  const response = await ").append(printRequest(file, batchEndpoint)).append(batchEndpoint.hasRawResponse() ? "<ArrayBuffer>" : returnType);
+        batcher.append("(").append(formatUrl(batchEndpoint));
+        if(batch.idsVariable() == null) {
+            batcher.append(", ").append(printRequestBody(file, batchEndpoint, "ids"));
+            String wireOptions = printWireOptions(file, batchEndpoint);
+            if(!wireOptions.isEmpty()) {
+                batcher.append(", {").append(wireOptions.substring(1)).append(" }");
+            }
+        } else {
+            if(!batchEndpoint.getHttpMethod().equals(HttpMethod.GET) && !batchEndpoint.getHttpMethod().equals(HttpMethod.DELETE)) {
+                batcher.append(", null");
+            }
+            // repeats the parameter as ids=1&ids=2 instead of axios' ids[]=1&ids[]=2, which Spring does not bind
+            batcher.append(", { params: { ").append(batch.idsVariable().getName()).append(": ids }, paramsSerializer: { indexes: null }")
+                    .append(printWireOptions(file, batchEndpoint)).append(" }");
+        }
+        batcher.append(");\n");
+        batcher.append("  return ").append(printResponse(file, batchEndpoint)).append(";\n");
+        batcher.append("}, (item) => item.").append(batch.idField()).append(", ").append(batch.window()).append(", ").append(batch.maxBatchSize()).append(");\n\n");
+        return batcher.toString();
+    }
+
+
+    /**
+     * Validates a sample of the responses against the generated models if configured and revives the contained dates.
+     */
+    private String printResponse(TypeScriptFile file, Endpoint endpoint) {
+        if(endpoint.getOffloadThreshold() != null) {
+            return decoders.offload(endpoint, "response.data", "response.headers['content-type']", TypeWriter.printType(endpoint.getReturnType(), context), file);
+        }
+
+        String data = "response.data";
+        if(endpoint.hasBinaryResponse()) {
+            addCodecImport(file, "decode");
+            data = "decode(response.data, response.headers['content-type'])";
+        }
+
+        String validator = context.validatesResponses() ? typeWriter.printValidator(endpoint.getReturnType(), file, context) : null;
+        if(validator == null) {
+            return dateRevivers.revive(endpoint.getReturnType(), data, file);
+        }
+
+        String location = file.getImportLocationFor(responseValidationFile());
+        if(file.getImports().stream().noneMatch(imp -> imp.getLocation().equals(location))) {
+            file.getImports().add(new TypeScriptFile.Import(location, null, Set.of("validateResponse")));
+        }
+        String validated = "validateResponse(" + data + ", '" + endpoint.getClassName() + "." + endpoint.getName() + "', " + validator + ")";
+        return dateRevivers.revive(endpoint.getReturnType(), validated, file);
+    }
+
+    /**
+     * GET requests send the ETag of the last response if conditional requests are enabled.
+     */
+    private String printRequest(TypeScriptFile file, Endpoint endpoint) {
+        if(!context.isConditionalRequests() || !endpoint.getHttpMethod().equals(HttpMethod.GET)) {
+            return "axios." + endpoint.getHttpMethod().name().toLowerCase();
+        }
+
+        String location = file.getImportLocationFor(RuntimeFiles.etagAxios(basePath, context));
+        if(file.getImports().stream().noneMatch(imp -> imp.getLocation().equals(location))) {
+            file.getImports().add(new TypeScriptFile.Import(location, null, Set.of("conditionalGet")));
+        }
+        return "conditionalGet";
+    }
+
+    /**
+     * Binary and offloaded responses are requested as array buffer and decoded according to their content type, the
+     * accept header lists the produced types in the order declared in the mapping.
+     */
+    private String printWireOptions(TypeScriptFile file, Endpoint endpoint) {
+        List<String> headers = new ArrayList<>();
+        List<String> options = new ArrayList<>();
+        if(endpoint.hasBinaryResponse()) {
+            headers.add("accept: '" + String.join(", ", endpoint.getProduces()) + "'");
+        }
+        if(endpoint.hasRawResponse()) {
+            options.add("responseType: 'arraybuffer'");
+        }
+        if(endpoint.getBody() != null && endpoint.getBinaryRequestFormat() != null) {
+            headers.add("'content-type': '" + endpoint.getBinaryRequestFormat().getMediaType() + "'");
+        }
+        if(!headers.isEmpty()) {
+            options.add("headers: { " + String.join(", ", headers) + " }");
+        }
+        return options.stream().map(option -> ", " + option).collect(Collectors.joining());
+    }
+
+    private String printRequestBody(TypeScriptFile file, Endpoint endpoint, String data) {
+        if(endpoint.getBinaryRequestFormat() == null) {
+            return data;
+        }
+        addCodecImport(file, "encode");
+        return "encode(" + data + ", '" + endpoint.getBinaryRequestFormat().getMediaType() + "')";
+    }
+
+    private void addCodecImport(TypeScriptFile file, String name) {
+        String location = file.getImportLocationFor(RuntimeFiles.codec(basePath, Set.of()));
+        Optional<TypeScriptFile.Import> importOptional = file.getImports()
+                .stream()
+                .filter(imp -> imp.getLocation().equals(location))
+                .findFirst();
+
+        if(importOptional.isPresent()) {
+            importOptional.get().getImports().add(name);
+        } else {
+            file.getImports().add(new TypeScriptFile.Import(location, null, new HashSet<>(Set.of(name))));
+        }
+    }
+
+    private TypeScriptFile responseValidationFile() {
+        return RuntimeFiles.responseValidation(basePath, context, "process.env.NODE_ENV !== 'production'");
+    }
+
+    private String printQueryHints(Endpoint endpoint, String indent, String separator) {
+        QueryHints hints = endpoint.getQueryHints();
+        if(hints == null) {
+            return "";
+        }
+
+        List<String> options = new ArrayList<>();
+        if(hints.staleTime() >= 0) {
+            options.add("staleTime: " + hints.staleTime() + ",");
+        }
+        if(hints.gcTime() >= 0) {
+            options.add("gcTime: " + hints.gcTime() + ",");
+        }
+        if(!hints.refetchOnWindowFocus()) {
+            options.add("refetchOnWindowFocus: false,");
+        }
+        if(!hints.structuralSharing()) {
+            options.add("structuralSharing: false,");
+        }
+        return options.stream().map(option -> indent + option + separator).collect(Collectors.joining());
+    }
 
     private String formatUrl(Endpoint endpoint) {
         String url = endpoint.getUrl();
@@ -17,6 +17,35 @@ public interface TypeWriter {
      */
     List<TypeScriptFile> printAllTypes(TypeContext context);
 
+    /**
+     * Creates a typescript expression of a function which validates a value of the given type and returns the found
+     * issues. Needed imports are added to the given file.
+     *
+     * @return The validator expression or null if values of this type can not be validated
+     */
+    default String printValidator(Type t, TypeScriptFile file, TypeContext context) {
+        return null;
+    }
+
+    /**
+     * @return true if the generated declaration of the named type declares its dates as {@code Date}, such that the date
+     * strings of responses have to be revived
+     */
+    default boolean declaresDates(NamedType namedType, TypeContext context) {
+        return !context.isUseStringAsDate();
+    }
+
+
+    /**
+     * @return The type of a union variant, narrowed to its tag
+     */
+    static String printVariant(UnionType u, UnionType.Variant variant) {
+        return "({ '" + u.getDiscriminator() + "': " + quote(variant.tag()) + " } & " + variant.type().getName() + ")";
+    }
+
+    static String quote(String s) {
+        return "'" + s.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
 
     static String printType(Type t, TypeContext context) {
         if(t instanceof NamedType o) {
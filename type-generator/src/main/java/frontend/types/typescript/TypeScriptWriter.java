@@ -19,7 +19,7 @@ public class TypeScriptWriter implements TypeWriter {
         context.getNamedObjects().forEach((name, objectType) -> {
             TypeScriptFile typeScriptFile = new TypeScriptFile();
             typeScriptFile.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + name);
-            typeScriptFile.setBody(printNamedType(name, objectType, context));
+            setBodies(typeScriptFile, name, objectType, context);
             files.add(typeScriptFile);
             context.getNamedObjectFiles().put(name, typeScriptFile);
         });
@@ -30,6 +30,10 @@ public class TypeScriptWriter implements TypeWriter {
                 TypeScriptFile file = context.getNamedObjectFiles().get(name);
                 objectType.getFields().forEach(field -> file.addImport(field.getType(), context));
             }
+            if(namedType instanceof UnionType unionType) {
+                TypeScriptFile file = context.getNamedObjectFiles().get(name);
+                unionType.getVariants().forEach(variant -> file.addImport(variant.type(), context));
+            }
         });
 
         return files;
@@ -42,7 +46,7 @@ public class TypeScriptWriter implements TypeWriter {
             if(!namedType.needsValidation() && !(namedType instanceof EnumType)) {
                 TypeScriptFile typeScriptFile = new TypeScriptFile();
                 typeScriptFile.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + name);
-                typeScriptFile.setBody(printNamedType(name, namedType, context));
+                setBodies(typeScriptFile, name, namedType, context);
                 files.add(typeScriptFile);
                 context.getNamedObjectFiles().put(name, typeScriptFile);
             }
@@ -55,6 +59,10 @@ public class TypeScriptWriter implements TypeWriter {
                     TypeScriptFile file = context.getNamedObjectFiles().get(name);
                     objectType.getFields().forEach(field -> file.addImport(field.getType(), context));
                 }
+                if (namedType instanceof UnionType unionType) {
+                    TypeScriptFile file = context.getNamedObjectFiles().get(name);
+                    unionType.getVariants().forEach(variant -> file.addImport(variant.type(), context));
+                }
 
             }
         });
@@ -62,7 +70,26 @@ public class TypeScriptWriter implements TypeWriter {
         return files;
     }
 
-    private String printNamedType(String name, NamedType t, TypeContext context) {
+    /**
+     * Sets the declarations and the script next to the TypeScript body, as plain type declarations can be emitted as
+     * JavaScript without a compiler.
+     */
+    private void setBodies(TypeScriptFile file, String name, NamedType t, TypeContext context) {
+        file.setBody(printNamedType(name, t, context));
+        if (t instanceof ObjectType || t instanceof UnionType) {
+            file.setDeclarations(file.getBody());
+            file.setScript(TypeScriptFile.EMPTY_MODULE);
+        } else if (t instanceof EnumType e) {
+            String values = String.join(", ", e.getValues().stream().map(v -> "'" + v + "'").toList());
+            String constant = name.substring(0, 1).toLowerCase() + name.substring(1) + "Values";
+            file.setDeclarations("type " + name + " = " + values.replace(", ", " | ") + ";\n"
+                    + "export declare const " + constant + ": " + name + "[];\n"
+                    + "export default " + name + ";\n");
+            file.setScript("export const " + constant + " = [" + values + "];\n");
+        }
+    }
+
+    public String printNamedType(String name, NamedType t, TypeContext context) {
         StringBuilder body = new StringBuilder();
         if(t instanceof ObjectType o) {
             body.append("export default interface ").append(name).append(" {\n");
@@ -92,6 +119,10 @@ public class TypeScriptWriter implements TypeWriter {
                 body.append("'").append(e.getValues().get(i)).append("'");
             }
             body.append("];\nexport default ").append(name).append(";\n");
+        } else if (t instanceof UnionType u) {
+            body.append("type ").append(name).append(" = ");
+            body.append(String.join(" | ", u.getVariants().stream().map(variant -> TypeWriter.printVariant(u, variant)).toList()));
+            body.append(";\nexport default ").append(name).append(";\n");
         }
         return body.toString();
     }
@@ -0,0 +1,344 @@
+package frontend.types.validator;
+
+import frontend.TypeScriptFile;
+import frontend.types.TypeWriter;
+import frontend.types.typescript.TypeScriptWriter;
+import lombok.RequiredArgsConstructor;
+import model.TypeContext;
+import model.TypeGraph;
+import model.types.*;
+import model.validation.Arrays;
+import model.validation.Numbers;
+import model.validation.Strings;
+import model.validation.Validation;
+
+import java.util.*;
+
+/**
+ * Generates plain TypeScript validator functions instead of Zod schemas. All checks are unrolled per field and regexes
+ * are compiled once per file, so validating large arrays does not need to interpret a schema.
+ */
+@RequiredArgsConstructor
+public class ValidatorWriter implements TypeWriter {
+    public static final String VALIDATION_FILE = "validation";
+
+    private static final String EMAIL = "/^(?!\\.)(?!.*\\.\\.)([A-Z0-9_'+\\-\\.]*)[A-Z0-9_+-]@([A-Z0-9][A-Z0-9\\-]*\\.)+[A-Z]{2,}$/i";
+
+    private final String basePath;
+
+    public List<TypeScriptFile> printAllTypes(TypeContext context) {
+        List<TypeScriptFile> files = new ArrayList<>();
+        TypeScriptWriter typeScriptWriter = new TypeScriptWriter(basePath);
+
+        TypeScriptFile validationFile = validationFile();
+
+        Map<String, Set<String>> validatorImports = new TreeMap<>();
+        context.getNamedObjects().forEach((name, namedType) -> {
+            if(namedType.needsValidation() || namedType instanceof EnumType) {
+                Set<String> referenced = new TreeSet<>();
+                TypeScriptFile typeScriptFile = new TypeScriptFile();
+                typeScriptFile.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + name);
+                typeScriptFile.setBody(printNamedType(name, namedType, context, typeScriptWriter, referenced));
+                files.add(typeScriptFile);
+                context.getNamedObjectFiles().put(name, typeScriptFile);
+                validatorImports.put(name, referenced);
+            }
+        });
+
+        if(!validatorImports.isEmpty()) {
+            files.add(validationFile);
+        }
+        files.addAll(typeScriptWriter.printAllNonValidatedTypes(context));
+
+        // resolving imports:
+        validatorImports.forEach((name, referenced) -> {
+            TypeScriptFile file = context.getNamedObjectFiles().get(name);
+            file.getImports().add(new TypeScriptFile.Import(file.getImportLocationFor(validationFile), "ValidationIssue", Set.of()));
+            if (context.getNamedObjects().get(name) instanceof ObjectType objectType) {
+                objectType.getFields().forEach(field -> file.addImport(field.getType(), context));
+            }
+            if (context.getNamedObjects().get(name) instanceof UnionType unionType) {
+                unionType.getVariants().forEach(variant -> file.addImport(variant.type(), context));
+            }
+            referenced.forEach(type -> file.addImport(context.getNamedObjects().get(type), "validate" + type, context));
+        });
+
+        return files;
+    }
+
+    @Override
+    public String printValidator(Type t, TypeScriptFile file, TypeContext context) {
+        if(TypeGraph.references(t).isEmpty()) {
+            return null;
+        }
+
+        if(t instanceof NamedType o) {
+            file.addImport(o, "validate" + o.getName(), context);
+            return "validate" + o.getName();
+        }
+
+        if(t instanceof ArrayType arr) {
+            addValidationImport(file, "validateArray");
+            return "validateArray(" + printValidator(arr.getSubType(), file, context) + ")";
+        }
+
+        if(t instanceof MapType map && !TypeGraph.references(map.getValueSubType()).isEmpty()) {
+            addValidationImport(file, "validateRecord");
+            return "validateRecord(" + printValidator(map.getValueSubType(), file, context) + ")";
+        }
+
+        return null;
+    }
+
+    private void addValidationImport(TypeScriptFile file, String name) {
+        String location = file.getImportLocationFor(validationFile());
+        Optional<TypeScriptFile.Import> importOptional = file.getImports()
+                .stream()
+                .filter(imp -> imp.getLocation().equals(location))
+                .findFirst();
+
+        if (importOptional.isPresent()) {
+            importOptional.get().getImports().add(name);
+        } else {
+            file.getImports().add(new TypeScriptFile.Import(location, null, new HashSet<>(Set.of(name))));
+        }
+    }
+
+    private TypeScriptFile validationFile() {
+        TypeScriptFile validationFile = new TypeScriptFile();
+        validationFile.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + VALIDATION_FILE);
+        validationFile.setBody("""
+                export default interface ValidationIssue {
+                  path: string;
+                  message: string;
+                }
+
+                export type Validate = (value: unknown, path?: string, issues?: ValidationIssue[]) => ValidationIssue[];
+
+                export function validateArray(validate: Validate): Validate {
+                  return (value, path = '$', issues = []) => {
+                    if (!Array.isArray(value)) {
+                      issues.push({ path, message: 'Expected array' });
+                    } else {
+                      for (let i = 0; i < value.length; i++) {
+                        validate(value[i], path + '[' + i + ']', issues);
+                      }
+                    }
+                    return issues;
+                  };
+                }
+
+                export function validateRecord(validate: Validate): Validate {
+                  return (value, path = '$', issues = []) => {
+                    if (typeof value !== 'object' || value === null || Array.isArray(value)) {
+                      issues.push({ path, message: 'Expected object' });
+                    } else {
+                      for (const key in value) {
+                        validate((value as Record<string, unknown>)[key], path + '.' + key, issues);
+                      }
+                    }
+                    return issues;
+                  };
+                }
+                """);
+        return validationFile;
+    }
+
+    private String printNamedType(String name, NamedType t, TypeContext context, TypeScriptWriter typeScriptWriter, Set<String> referenced) {
+        StringBuilder body = new StringBuilder();
+        if(t instanceof ObjectType o) {
+            Validator validator = new Validator(name, referenced);
+            validator.body.append("  const v = value as Record<string, unknown>;\n");
+            for (int i = 0; i < o.getFields().size(); i++) {
+                Field field = o.getFields().get(i);
+                String variable = "f" + i;
+                String path = "path + '." + field.getName() + "'";
+                validator.body.append("  const ").append(variable).append(" = v.").append(field.getName()).append(";\n");
+                validator.body.append("  if (").append(variable).append(" != null) {\n");
+                validator.printChecks(field.getType(), field.getValidations(), variable, path, "    ");
+                if(field.isRequired()) {
+                    validator.body.append("  } else {\n");
+                    validator.body.append("    issues.push({ path: ").append(path).append(", message: 'Required' });\n");
+                }
+                validator.body.append("  }\n");
+            }
+
+            validator.patterns.forEach((pattern, constant) ->
+                    body.append("const ").append(constant).append(" = ").append(pattern).append(";\n"));
+            if(!validator.patterns.isEmpty()) {
+                body.append("\n");
+            }
+
+            body.append(typeScriptWriter.printNamedType(name, t, context)).append("\n");
+            body.append("export function validate").append(name).append("(value: unknown, path = '$', issues: ValidationIssue[] = []): ValidationIssue[] {\n");
+            body.append("  if (typeof value !== 'object' || value === null || Array.isArray(value)) {\n");
+            body.append("    issues.push({ path, message: 'Expected object' });\n");
+            body.append("    return issues;\n");
+            body.append("  }\n");
+            body.append(validator.body);
+            body.append("  return issues;\n");
+            body.append("}\n");
+        } else if (t instanceof EnumType e) {
+            body.append(typeScriptWriter.printNamedType(name, t, context)).append("\n");
+            body.append("const ").append(name).append("Set = new Set<unknown>([");
+            for (int i = 0; i < e.getValues().size(); i++) {
+                if (i != 0) {
+                    body.append(", ");
+                }
+                body.append("'").append(e.getValues().get(i)).append("'");
+            }
+            body.append("]);\n\n");
+            body.append("export function validate").append(name).append("(value: unknown, path = '$', issues: ValidationIssue[] = []): ValidationIssue[] {\n");
+            body.append("  if (!").append(name).append("Set.has(value)) {\n");
+            body.append("    issues.push({ path, message: 'Invalid enum value' });\n");
+            body.append("  }\n");
+            body.append("  return issues;\n");
+            body.append("}\n");
+        } else if (t instanceof UnionType u) {
+            String tagPath = "path + '." + u.getDiscriminator() + "'";
+            body.append(typeScriptWriter.printNamedType(name, t, context)).append("\n");
+            body.append("export function validate").append(name).append("(value: unknown, path = '$', issues: ValidationIssue[] = []): ValidationIssue[] {\n");
+            body.append("  if (typeof value !== 'object' || value === null || Array.isArray(value)) {\n");
+            body.append("    issues.push({ path, message: 'Expected object' });\n");
+            body.append("    return issues;\n");
+            body.append("  }\n");
+            body.append("  switch ((value as Record<string, unknown>)['").append(u.getDiscriminator()).append("']) {\n");
+            u.getVariants().forEach(variant -> {
+                referenced.add(variant.type().getName());
+                body.append("    case ").append(TypeWriter.quote(variant.tag())).append(": return validate")
+                        .append(variant.type().getName()).append("(value, path, issues);\n");
+            });
+            body.append("  }\n");
+            body.append("  issues.push({ path: ").append(tagPath).append(", message: 'Unknown type' });\n");
+            body.append("  return issues;\n");
+            body.append("}\n");
+        }
+
+        body.append("\nexport function is").append(name).append("(value: unknown): value is ").append(name).append(" {\n");
+        body.append("  return validate").append(name).append("(value).length === 0;\n");
+        body.append("}\n");
+        return body.toString();
+    }
+
+    @RequiredArgsConstructor
+    private static class Validator {
+        private final String name;
+        private final Set<String> referenced;
+        private final StringBuilder body = new StringBuilder();
+        private final Map<String, String> patterns = new LinkedHashMap<>();
+        private int elements = 0;
+
+        private void printChecks(Type t, List<Validation> validations, String variable, String path, String indent) {
+            if(t instanceof NamedType o) {
+                referenced.add(o.getName());
+                body.append(indent).append("validate").append(o.getName()).append("(").append(variable).append(", ").append(path).append(", issues);\n");
+                return;
+            }
+
+            if(t instanceof ArrayType arr) {
+                String index = "i" + elements;
+                String element = "e" + elements++;
+                printTypeCheck("!Array.isArray(" + variable + ")", "Expected array", path, indent);
+                printValidations(validations, variable, path, indent + "  ");
+                body.append(indent).append("  for (let ").append(index).append(" = 0; ").append(index).append(" < ").append(variable).append(".length; ").append(index).append("++) {\n");
+                body.append(indent).append("    const ").append(element).append(" = ").append(variable).append("[").append(index).append("];\n");
+                printElement(arr.getSubType(), element, path + " + '[' + " + index + " + ']'", indent + "    ");
+                body.append(indent).append("  }\n");
+                body.append(indent).append("}\n");
+                return;
+            }
+
+            if(t instanceof MapType map) {
+                String key = "k" + elements;
+                String element = "e" + elements++;
+                printTypeCheck("typeof " + variable + " !== 'object' || Array.isArray(" + variable + ")", "Expected object", path, indent);
+                body.append(indent).append("  for (const ").append(key).append(" in ").append(variable).append(") {\n");
+                String elementPath = path + " + '.' + " + key;
+                if(map.getKeySubType() instanceof NamedType) {
+                    printChecks(map.getKeySubType(), List.of(), key, elementPath, indent + "    ");
+                }
+                body.append(indent).append("    const ").append(element).append(" = (").append(variable).append(" as Record<string, unknown>)[").append(key).append("];\n");
+                printElement(map.getValueSubType(), element, elementPath, indent + "    ");
+                body.append(indent).append("  }\n");
+                body.append(indent).append("}\n");
+                return;
+            }
+
+            if(t instanceof PrimitiveType p) {
+                switch (p) {
+                    case Int -> printTypeCheck("typeof " + variable + " !== 'number' || !Number.isInteger(" + variable + ")", "Expected integer", path, indent);
+                    case Double -> printTypeCheck("typeof " + variable + " !== 'number'", "Expected number", path, indent);
+                    case String, Date -> printTypeCheck("typeof " + variable + " !== 'string'", "Expected string", path, indent);
+                    case Boolean -> printTypeCheck("typeof " + variable + " !== 'boolean'", "Expected boolean", path, indent);
+                    default -> throw new UnsupportedOperationException("Unexpected validated type " + p);
+                }
+                printValidations(validations, variable, path, indent + "  ");
+                body.append(indent).append("}\n");
+                return;
+            }
+
+            throw new UnsupportedOperationException("Unsupported Type: " + t.getClass().getName());
+        }
+
+        private void printElement(Type t, String element, String path, String indent) {
+            body.append(indent).append("if (").append(element).append(" == null) {\n");
+            body.append(indent).append("  issues.push({ path: ").append(path).append(", message: 'Required' });\n");
+            body.append(indent).append("} else {\n");
+            printChecks(t, List.of(), element, path, indent + "  ");
+            body.append(indent).append("}\n");
+        }
+
+        /**
+         * Opens the else branch of the type check, which has to be closed by the caller.
+         */
+        private void printTypeCheck(String condition, String message, String path, String indent) {
+            body.append(indent).append("if (").append(condition).append(") {\n");
+            body.append(indent).append("  issues.push({ path: ").append(path).append(", message: '").append(message).append("' });\n");
+            body.append(indent).append("} else {\n");
+        }
+
+        private void printValidations(List<Validation> validations, String variable, String path, String indent) {
+            validations.forEach(validation -> {
+                body.append(indent).append("if (").append(printCondition(validation, variable)).append(") {\n");
+                body.append(indent).append("  issues.push({ path: ").append(path).append(", message: ").append(quote(validation.message())).append(" });\n");
+                body.append(indent).append("}\n");
+            });
+        }
+
+        private String printCondition(Validation validation, String variable) {
+            if(validation instanceof Strings.Email) {
+                return "!" + pattern(EMAIL) + ".test(" + variable + ")";
+            }
+
+            if(validation instanceof Strings.Regex re) {
+                return "!" + pattern(re.regex()) + ".test(" + variable + ")";
+            }
+
+            if(validation instanceof Numbers.MinValue min) {
+                return variable + " < " + min.minValue();
+            }
+
+            if(validation instanceof Numbers.MaxValue max) {
+                return variable + " > " + max.maxValue();
+            }
+
+            if(validation instanceof Arrays.MinLength min) {
+                return variable + ".length < " + min.minLength();
+            }
+
+            if(validation instanceof Arrays.MaxLength max) {
+                return variable + ".length > " + max.maxLength();
+            }
+
+            throw new UnsupportedOperationException("Validation " + validation.getClass().getName() + " not supported in ValidatorWriter");
+        }
+
+        private String pattern(String regex) {
+            return patterns.computeIfAbsent(regex, r -> name + "Pattern" + patterns.size());
+        }
+
+        private static String quote(String message) {
+            return "'" + message.replace("\\", "\\\\").replace("'", "\\'") + "'";
+        }
+    }
+}
@@ -5,6 +5,7 @@ import frontend.types.TypeWriter;
 import frontend.types.typescript.TypeScriptWriter;
 import lombok.RequiredArgsConstructor;
 import model.TypeContext;
+import model.TypeGraph;
 import model.types.*;
 import model.validation.Arrays;
 import model.validation.Numbers;
@@ -18,23 +19,52 @@ import java.util.Set;
 
 @RequiredArgsConstructor
 public class ZodWriter implements TypeWriter {
+    public static final String LAZY_FILE = "lazy";
+
+    private static final String LAZY_BODY = """
+            /**
+             * Builds the value on first access, such that schemas of screens which are never opened are never constructed.
+             */
+            export function deferred<T extends object>(factory: () => T): T {
+              let value: T | undefined;
+              const get = () => value ??= factory();
+              return new Proxy({} as T, {
+                get: (_, property) => {
+                  const target = get();
+                  const result = Reflect.get(target, property, target);
+                  return typeof result === 'function' ? result.bind(target) : result;
+                },
+                has: (_, property) => Reflect.has(get(), property),
+                getPrototypeOf: () => Reflect.getPrototypeOf(get()),
+              });
+            }
+            """;
+
     private final String basePath;
 
     private final TypeScriptFile.Import zodImport = new TypeScriptFile.Import("zod", null, Set.of("z"));
 
     public List<TypeScriptFile> printAllTypes(TypeContext context) {
         List<TypeScriptFile> files = new ArrayList<>();
+        TypeGraph graph = new TypeGraph(context.getNamedObjects());
         context.getNamedObjects().forEach((name, namedType) -> {
             if(namedType.needsValidation() || namedType instanceof EnumType) {
                 TypeScriptFile typeScriptFile = new TypeScriptFile();
                 typeScriptFile.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + name);
-                typeScriptFile.setBody(printNamedType(name, namedType));
+                typeScriptFile.setBody(printNamedType(name, namedType, graph, context));
                 files.add(typeScriptFile);
                 context.getNamedObjectFiles().put(name, typeScriptFile);
             }
 
         });
 
+        TypeScriptFile lazyFile = new TypeScriptFile();
+        lazyFile.setLocation(basePath + TYPE_DECLARATIONS_DIR + "/" + LAZY_FILE);
+        lazyFile.setBody(LAZY_BODY);
+        if(!files.isEmpty()) {
+            files.add(lazyFile);
+        }
+
         TypeScriptWriter typeScriptWriter = new TypeScriptWriter(basePath);
         files.addAll(typeScriptWriter.printAllNonValidatedTypes(context));
 
@@ -43,8 +73,18 @@ public class ZodWriter implements TypeWriter {
             if(namedType.needsValidation() || namedType instanceof EnumType) {
                 TypeScriptFile file = context.getNamedObjectFiles().get(name);
                 file.getImports().add(zodImport);
+                file.getImports().add(new TypeScriptFile.Import(file.getImportLocationFor(lazyFile), null, Set.of("deferred")));
                 if (namedType instanceof ObjectType objectType) {
                     objectType.getFields().forEach(field -> addZodModelImport(field.getType(), context, file));
+                    if(graph.isCyclic(objectType)) {
+                        objectType.getFields().forEach(field -> file.addImport(field.getType(), context));
+                    }
+                }
+                if (namedType instanceof UnionType unionType) {
+                    unionType.getVariants().forEach(variant -> addZodModelImport(variant.type(), context, file));
+                    if(graph.isCyclic(unionType)) {
+                        unionType.getVariants().forEach(variant -> file.addImport(variant.type(), context));
+                    }
                 }
             }
         });
@@ -52,35 +92,125 @@ public class ZodWriter implements TypeWriter {
         return files;
     }
 
-    private String printNamedType(String name, NamedType t) {
+    /**
+     * The inferred types of the schemas declare dates as strings, see {@link #printOutputType}, the types without schema
+     * are declared by the {@link TypeScriptWriter}.
+     */
+    @Override
+    public boolean declaresDates(NamedType namedType, TypeContext context) {
+        return !context.isUseStringAsDate() && !namedType.needsValidation() && !(namedType instanceof EnumType);
+    }
+
+    @Override
+    public String printValidator(Type t, TypeScriptFile file, TypeContext context) {
+        Set<String> references = TypeGraph.references(t);
+        if(references.isEmpty()) {
+            return null;
+        }
+
+        references.forEach(name -> file.addImport(context.getNamedObjects().get(name), name + "Model", context));
+        String schema = printZodType(t, null, null);
+        if(schema.contains("z.") && !file.getImports().contains(zodImport)) {
+            file.getImports().add(zodImport);
+        }
+        return "(data: unknown) => " + schema + ".safeParse(data).error?.issues";
+    }
+
+    private String printNamedType(String name, NamedType t, TypeGraph graph, TypeContext context) {
         StringBuilder body = new StringBuilder();
         if(t instanceof ObjectType o) {
-            body.append("export const ").append(name).append("Model").append(" = z.object({\n");
+            // z.infer can not resolve recursive schemas, those need an explicitly declared type
+            boolean cyclic = graph.isCyclic(o);
+            if(cyclic) {
+                body.append("type ").append(name).append(" = {\n");
+                o.getFields().forEach(field -> {
+                    body.append("  ").append(field.getName());
+                    if(!field.isRequired()) {
+                        body.append("?");
+                    }
+                    body.append(": ").append(printOutputType(field.getType(), context));
+                    if(!field.isRequired()) {
+                        body.append(" | null");
+                    }
+                    body.append(";\n");
+                });
+                body.append("};\n\n");
+                body.append("export const ").append(name).append("Model: z.ZodType<").append(name).append("> = deferred(() => z.object({\n");
+            } else {
+                body.append("export const ").append(name).append("Model").append(" = deferred(() => z.object({\n");
+            }
             o.getFields().forEach(field -> {
-                body.append("  ").append(field.getName()).append(": ").append(printZodType(field.getType()));
+                body.append("  ").append(field.getName()).append(": ").append(printZodType(field.getType(), o, graph));
                 field.getValidations().forEach(validation -> body.append(printValidation(validation)));
                 if(!field.isRequired()) {
                     body.append(".optional().nullable()");
                 }
                 body.append(",\n");
             });
-            body.append("});\n\n");
+            body.append("}));\n\n");
 
-            body.append("type ").append(name).append(" = z.infer<typeof ").append(name).append("Model>;\n");
+            if(!cyclic) {
+                body.append("type ").append(name).append(" = z.infer<typeof ").append(name).append("Model>;\n");
+            }
             body.append("export default ").append(name).append(";\n");
         } else if (t instanceof EnumType e) {
-            body.append("export const ").append(name).append("Model = z.enum([\n");
+            body.append("export const ").append(name).append("Model = deferred(() => z.enum([\n");
             e.getValues().forEach(s ->
                     body.append("'").append(s).append("',\n")
             );
-            body.append("]);\n\n");
+            body.append("]));\n\n");
 
             body.append("type ").append(name).append(" = z.infer<typeof ").append(name).append("Model>;\n");
             body.append("export default ").append(name).append(";\n");
+        } else if (t instanceof UnionType u) {
+            // discriminatedUnion dispatches on the tag instead of trying every variant
+            boolean cyclic = graph.isCyclic(u);
+            if(cyclic) {
+                body.append("type ").append(name).append(" = ");
+                body.append(String.join(" | ", u.getVariants().stream().map(variant -> TypeWriter.printVariant(u, variant)).toList()));
+                body.append(";\n\n");
+                body.append("export const ").append(name).append("Model: z.ZodType<").append(name).append("> = deferred(() => z.discriminatedUnion('");
+            } else {
+                body.append("export const ").append(name).append("Model = deferred(() => z.discriminatedUnion('");
+            }
+            body.append(u.getDiscriminator()).append("', [\n");
+            u.getVariants().forEach(variant -> {
+                // explicitly typed schemas of recursive types do not expose extend
+                String model = graph.isCyclic(variant.type())
+                        ? "(" + variant.type().getName() + "Model as unknown as z.AnyZodObject)"
+                        : variant.type().getName() + "Model";
+                body.append("  ").append(model).append(".extend({ '").append(u.getDiscriminator()).append("': z.literal(")
+                        .append(TypeWriter.quote(variant.tag())).append(") }),\n");
+            });
+            body.append("]));\n\n");
+
+            if(!cyclic) {
+                body.append("type ").append(name).append(" = z.infer<typeof ").append(name).append("Model>;\n");
+            }
+            body.append("export default ").append(name).append(";\n");
         }
         return body.toString();
     }
 
+    /**
+     * The type inferred by zod for a schema, dates are transmitted and validated as strings.
+     */
+    private String printOutputType(Type t, TypeContext context) {
+        if(t instanceof PrimitiveType p && p == PrimitiveType.Date) {
+            return "string";
+        }
+
+        if(t instanceof ArrayType arr) {
+            return printOutputType(arr.getSubType(), context) + "[]";
+        }
+
+        if(t instanceof MapType map) {
+            return "Record<" + printOutputType(map.getKeySubType(), context) + ", " + printOutputType(map.getValueSubType(), context) + ">";
+        }
+
+        return TypeWriter.printType(t, context);
+    }
+
     private String printValidation(Validation validation) {
         if(validation instanceof Strings.Email) {
             return ".email({ message: \"" + validation.message() + "\"})";
@@ -109,17 +239,20 @@ public class ZodWriter implements TypeWriter {
         throw new UnsupportedOperationException("Validation " + validation.getClass().getName() + " not supported in ZodWriter");
     }
 
-    private String printZodType(Type t) {
+    private String printZodType(Type t, NamedType owner, TypeGraph graph) {
         if(t instanceof NamedType o) {
+            if(owner != null && graph.isCyclic(owner, o)) {
+                return "z.lazy(() => " + o.getName() + "Model)";
+            }
             return o.getName() + "Model";
         }
 
         if(t instanceof ArrayType arr) {
-            return printZodType(arr.getSubType()) + ".array()";
+            return printZodType(arr.getSubType(), owner, graph) + ".array()";
         }
 
         if(t instanceof MapType map) {
-            return "z.record(" + printZodType(map.getKeySubType()) + ", " + printZodType(map.getValueSubType()) + ")";
+            return "z.record(" + printZodType(map.getKeySubType(), owner, graph) + ", " + printZodType(map.getValueSubType(), owner, graph) + ")";
         }
 
         if(t instanceof PrimitiveType p) {
@@ -0,0 +1,431 @@
+package loadtest;
+
+import lombok.SneakyThrows;
+import model.Endpoint;
+import model.TypeContext;
+import model.types.*;
+import model.validation.Arrays;
+import model.validation.Numbers;
+import model.validation.Strings;
+import model.validation.Validation;
+import org.springframework.http.HttpMethod;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Generates Gatling simulations (Java DSL) calling every endpoint with random variables and bodies, which satisfy the
+ * parsed validation constraints. Each controller gets a class with its requests, value suppliers and a scenario, which
+ * are all started by {@code ApiSimulation}.
+ */
+public class GatlingWriter {
+    public static final String SIMULATION = "ApiSimulation";
+    public static final String VALUES = "Values";
+    public static final String MODELS = "Models";
+
+    private static final String NOT_BLANK = "^(?!\\s*$).+";
+
+    private final TypeContext context;
+    private final Path directory;
+    private final String packageName;
+    private boolean usesPatterns = false;
+
+    /**
+     * @param directory The source directory, the files are written to the sub directory of the package
+     */
+    public GatlingWriter(TypeContext context, String directory, String packageName) {
+        this.context = context;
+        this.packageName = packageName;
+        this.directory = Paths.get(directory, packageName.split("\\."));
+    }
+
+    public void write(List<Endpoint> endpoints) {
+        Map<String, List<Endpoint>> endpointMap = new TreeMap<>();
+        endpoints.forEach(endpoint -> endpointMap.computeIfAbsent(endpoint.getClassName(), k -> new ArrayList<>()).add(endpoint));
+
+        endpointMap.forEach((className, classEndpoints) -> writeFile(className + "Requests", printRequests(className, classEndpoints)));
+        writeFile(MODELS, printModels());
+        writeFile(VALUES, printValues());
+        writeFile(SIMULATION, printSimulation(endpointMap.keySet()));
+    }
+
+    private String printRequests(String className, List<Endpoint> endpoints) {
+        String requestsClass = className + "Requests";
+        StringBuilder requests = new StringBuilder();
+        StringBuilder scenario = new StringBuilder("    public static final ScenarioBuilder SCENARIO = scenario(\"" + className + "\")");
+        Set<String> names = new HashSet<>();
+
+        for (Endpoint endpoint : endpoints) {
+            String name = endpoint.getName();
+            for (int i = 2; !names.add(name); i++) {
+                name = endpoint.getName() + i;
+            }
+
+            if (endpoint.getStreamFormat() != null || (endpoint.getBody() != null && endpoint.getBinaryRequestFormat() != null)) {
+                requests.append("    // ").append(name).append(" is skipped, streams and binary bodies are not supported\n\n");
+                continue;
+            }
+
+            requests.append("    public static Map<String, Object> ").append(name).append("Values() {\n");
+            requests.append("        Map<String, Object> values = new HashMap<>();\n");
+            List<String> queryParams = new ArrayList<>();
+            endpoint.getUrlArgs().forEach(field -> requests.append("        values.put(\"").append(field.getName()).append("\", ")
+                    .append(value(field.getType(), field.getValidations(), "0")).append(");\n"));
+            for (Field param : endpoint.getParams()) {
+                if (param.getType() instanceof ObjectType o) {
+                    // bound field by field like a @ModelAttribute
+                    for (Field field : o.getFields()) {
+                        requests.append("        values.put(\"").append(field.getName()).append("\", ")
+                                .append(value(field.getType(), field.getValidations(), "0")).append(");\n");
+                        queryParams.add(printQueryParam(field));
+                    }
+                } else {
+                    requests.append("        values.put(\"").append(param.getName()).append("\", ")
+                            .append(value(param.getType(), param.getValidations(), "0")).append(");\n");
+                    queryParams.add(printQueryParam(param));
+                }
+            }
+            if (endpoint.getBody() != null) {
+                requests.append("        values.put(\"body\", ").append(value(endpoint.getBody(), List.of(), "0")).append(");\n");
+            }
+            requests.append("        return values;\n");
+            requests.append("    }\n\n");
+
+            String url = endpoint.getUrl().replace("{", "#{");
+            requests.append("    public static final HttpRequestActionBuilder ").append(name).append(" = http(\"")
+                    .append(endpoint.getClassName()).append(".").append(name).append("\")\n");
+            requests.append("            .").append(printMethod(endpoint.getHttpMethod(), url)).append("\n");
+            queryParams.forEach(queryParam -> requests.append("            .").append(queryParam).append("\n"));
+            if (endpoint.getBody() != null) {
+                requests.append("            .body(StringBody(session -> Values.json(session.get(\"body\")))).asJson()\n");
+            }
+            requests.append("            .check(status().lt(500));\n\n");
+
+            scenario.append("\n            .feed(Values.feeder(").append(requestsClass).append("::").append(name).append("Values)).exec(").append(name).append(")");
+        }
+        scenario.append(";\n");
+
+        return """
+                import io.gatling.javaapi.core.ScenarioBuilder;
+                import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+                import java.util.*;
+
+                import static io.gatling.javaapi.core.CoreDsl.*;
+                import static io.gatling.javaapi.http.HttpDsl.*;
+
+                public final class %s {
+                    private %s() {
+                    }
+
+                %s%s}
+                """.formatted(requestsClass, requestsClass, requests, scenario);
+    }
+
+    private String printMethod(HttpMethod method, String url) {
+        String name = method.name();
+        if (List.of("GET", "POST", "PUT", "PATCH", "DELETE").contains(name)) {
+            return name.toLowerCase() + "(\"" + escape(url) + "\")";
+        }
+        return "httpRequest(\"" + name + "\", \"" + escape(url) + "\")";
+    }
+
+    private static String printQueryParam(Field field) {
+        String method = field.getType() instanceof ArrayType ? "multivaluedQueryParam" : "queryParam";
+        return method + "(\"" + field.getName() + "\", \"#{" + field.getName() + "}\")";
+    }
+
+    private String printModels() {
+        StringBuilder models = new StringBuilder();
+        context.getNamedObjects().values().forEach(namedType -> {
+            if (namedType instanceof ObjectType o) {
+                models.append("    public static Map<String, Object> random").append(o.getName()).append("(int depth) {\n");
+                models.append("        if (depth > MAX_DEPTH) {\n");
+                models.append("            return null;\n");
+                models.append("        }\n");
+                models.append("        Map<String, Object> value = new LinkedHashMap<>();\n");
+                o.getFields().forEach(field -> models.append("        value.put(\"").append(escape(field.getName())).append("\", ")
+                        .append(value(field.getType(), field.getValidations(), "depth + 1")).append(");\n"));
+                models.append("        return value;\n");
+                models.append("    }\n\n");
+            }
+            if (namedType instanceof UnionType u && !u.getVariants().isEmpty()) {
+                models.append("    public static Map<String, Object> random").append(u.getName()).append("(int depth) {\n");
+                models.append("        return switch (ThreadLocalRandom.current().nextInt(").append(u.getVariants().size()).append(")) {\n");
+                for (int i = 0; i < u.getVariants().size(); i++) {
+                    UnionType.Variant variant = u.getVariants().get(i);
+                    models.append("            ").append(i == u.getVariants().size() - 1 ? "default" : "case " + i)
+                            .append(" -> Values.tagged(random").append(variant.type().getName()).append("(depth), \"")
+                            .append(escape(u.getDiscriminator())).append("\", \"").append(escape(variant.tag())).append("\");\n");
+                }
+                models.append("        };\n");
+                models.append("    }\n\n");
+            }
+        });
+
+        return """
+                import java.util.*;
+                import java.util.concurrent.ThreadLocalRandom;
+
+                /**
+                 * Random instances of the types sent to the endpoints, references nested deeper than MAX_DEPTH are null.
+                 */
+                public final class Models {
+                    private static final int MAX_DEPTH = 4;
+
+                    private Models() {
+                    }
+
+                %s}
+                """.formatted(models);
+    }
+
+    /**
+     * @return A java expression creating a random value of the type satisfying the validations
+     */
+    private String value(Type type, List<Validation> validations, String depth) {
+        if (type instanceof PrimitiveType p) {
+            return switch (p) {
+                case String -> stringValue(validations);
+                case Int -> {
+                    long min = bound(validations, Numbers.MinValue.class).orElse(Long.MIN_VALUE);
+                    long max = bound(validations, Numbers.MaxValue.class).orElse(Long.MAX_VALUE);
+                    if (min == Long.MIN_VALUE) {
+                        min = max == Long.MAX_VALUE ? 0 : Math.min(0, max);
+                    }
+                    if (max == Long.MAX_VALUE) {
+                        max = min + 1000;
+                    }
+                    yield "Values.integer(" + min + "L, " + max + "L)";
+                }
+                case Double -> {
+                    long min = bound(validations, Numbers.MinValue.class).orElse(0L);
+                    long max = bound(validations, Numbers.MaxValue.class).orElse(min + 1000);
+                    yield "Values.decimal(" + min + ", " + max + ")";
+                }
+                case Boolean -> "Values.bool()";
+                case Date -> "Values.date()";
+                case Void -> "null";
+            };
+        }
+
+        if (type instanceof EnumType e) {
+            if (e.getValues().isEmpty()) {
+                return "null";
+            }
+            return "Values.oneOf(" + e.getValues().stream().map(v -> "\"" + escape(v) + "\"").collect(Collectors.joining(", ")) + ")";
+        }
+
+        if (type instanceof ArrayType arr) {
+            int min = bound(validations, Arrays.MinLength.class).map(Long::intValue).orElse(0);
+            int max = bound(validations, Arrays.MaxLength.class).map(Long::intValue).orElse(Math.max(min, 3));
+            return "Values.list(" + min + ", " + max + ", () -> " + value(arr.getSubType(), List.of(), depth) + ")";
+        }
+
+        if (type instanceof MapType map) {
+            return "Values.map(() -> " + value(map.getKeySubType(), List.of(), depth) + ", () -> " + value(map.getValueSubType(), List.of(), depth) + ")";
+        }
+
+        if (type instanceof ObjectType || type instanceof UnionType) {
+            return MODELS + ".random" + ((NamedType) type).getName() + "(" + depth + ")";
+        }
+
+        return "null";
+    }
+
+    private String stringValue(List<Validation> validations) {
+        int min = bound(validations, Arrays.MinLength.class).map(Long::intValue).orElse(1);
+        int max = bound(validations, Arrays.MaxLength.class).map(Long::intValue).orElse(Math.max(min, 12));
+        for (Validation validation : validations) {
+            if (validation instanceof Strings.Email) {
+                return "Values.email()";
+            }
+            if (validation instanceof Strings.Regex regex) {
+                String pattern = regex.regex().substring(1, regex.regex().length() - 1);
+                if (pattern.equals(NOT_BLANK)) {
+                    min = Math.max(min, 1);
+                    continue;
+                }
+                usesPatterns = true;
+                return "Values.matching(\"" + escape(pattern) + "\")";
+            }
+        }
+        return "Values.string(" + min + ", " + Math.max(min, max) + ")";
+    }
+
+    private static Optional<Long> bound(List<Validation> validations, Class<? extends Validation> kind) {
+        return validations.stream().filter(kind::isInstance).map(validation -> {
+            if (validation instanceof Numbers.MinValue v) {
+                return v.minValue();
+            }
+            if (validation instanceof Numbers.MaxValue v) {
+                return v.maxValue();
+            }
+            if (validation instanceof Arrays.MinLength v) {
+                return (long) v.minLength();
+            }
+            return (long) ((Arrays.MaxLength) validation).maxLength();
+        }).findFirst();
+    }
+
+    private String printValues() {
+        return """
+                %simport java.time.Duration;
+                import java.time.Instant;
+                import java.time.temporal.ChronoUnit;
+                import java.util.*;
+                import java.util.concurrent.ConcurrentHashMap;
+                import java.util.concurrent.ThreadLocalRandom;
+                import java.util.function.Supplier;
+                import java.util.stream.Stream;
+
+                /**
+                 * Random values and the settings of the simulation, which can be overridden with system properties.
+                 */
+                public final class Values {
+                    public static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+                    public static final double USERS_PER_SECOND = Double.parseDouble(System.getProperty("usersPerSecond", "5"));
+                    public static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 60));
+
+                    private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+                %s
+                    private Values() {
+                    }
+
+                    public static Iterator<Map<String, Object>> feeder(Supplier<Map<String, Object>> values) {
+                        return Stream.generate(values).iterator();
+                    }
+
+                    public static long integer(long min, long max) {
+                        return max == Long.MAX_VALUE ? ThreadLocalRandom.current().nextLong(min, max) : ThreadLocalRandom.current().nextLong(min, max + 1);
+                    }
+
+                    public static double decimal(double min, double max) {
+                        return min + ThreadLocalRandom.current().nextDouble() * (max - min);
+                    }
+
+                    public static boolean bool() {
+                        return ThreadLocalRandom.current().nextBoolean();
+                    }
+
+                    public static String string(int minLength, int maxLength) {
+                        int length = ThreadLocalRandom.current().nextInt(minLength, maxLength + 1);
+                        StringBuilder value = new StringBuilder(length);
+                        for (int i = 0; i < length; i++) {
+                            value.append(CHARACTERS.charAt(ThreadLocalRandom.current().nextInt(CHARACTERS.length())));
+                        }
+                        return value.toString();
+                    }
+                %s
+                    public static String email() {
+                        return string(1, 12) + "@example.com";
+                    }
+
+                    public static String date() {
+                        return Instant.now().minus(ThreadLocalRandom.current().nextLong(0, 365 * 24 * 60), ChronoUnit.MINUTES).toString();
+                    }
+
+                    @SafeVarargs
+                    public static <T> T oneOf(T... values) {
+                        return values[ThreadLocalRandom.current().nextInt(values.length)];
+                    }
+
+                    public static List<Object> list(int minLength, int maxLength, Supplier<Object> element) {
+                        int length = ThreadLocalRandom.current().nextInt(minLength, maxLength + 1);
+                        List<Object> list = new ArrayList<>(length);
+                        for (int i = 0; i < length; i++) {
+                            list.add(element.get());
+                        }
+                        return list;
+                    }
+
+                    public static Map<String, Object> map(Supplier<Object> key, Supplier<Object> value) {
+                        Map<String, Object> map = new LinkedHashMap<>();
+                        for (int i = ThreadLocalRandom.current().nextInt(4); i > 0; i--) {
+                            map.put(String.valueOf(key.get()), value.get());
+                        }
+                        return map;
+                    }
+
+                    public static Map<String, Object> tagged(Map<String, Object> value, String property, String tag) {
+                        if (value != null) {
+                            value.put(property, tag);
+                        }
+                        return value;
+                    }
+
+                    public static String json(Object value) {
+                        if (value == null || value instanceof Number || value instanceof Boolean) {
+                            return String.valueOf(value);
+                        }
+                        if (value instanceof Map<?, ?> map) {
+                            StringJoiner json = new StringJoiner(",", "{", "}");
+                            map.forEach((key, entry) -> json.add(json(String.valueOf(key)) + ":" + json(entry)));
+                            return json.toString();
+                        }
+                        if (value instanceof List<?> list) {
+                            StringJoiner json = new StringJoiner(",", "[", "]");
+                            list.forEach(entry -> json.add(json(entry)));
+                            return json.toString();
+                        }
+                        StringBuilder json = new StringBuilder("\\"");
+                        for (char c : value.toString().toCharArray()) {
+                            switch (c) {
+                                case '"' -> json.append("\\\\\\"");
+                                case '\\\\' -> json.append("\\\\\\\\");
+                                case '\\n' -> json.append("\\\\n");
+                                case '\\r' -> json.append("\\\\r");
+                                case '\\t' -> json.append("\\\\t");
+                                default -> json.append(c < 0x20 ? String.format("\\\\u%%04x", (int) c) : String.valueOf(c));
+                            }
+                        }
+                        return json.append("\\"").toString();
+                    }
+                }
+                """.formatted(
+                usesPatterns ? "import com.github.curiousoddman.rgxgen.RgxGen;\n" : "",
+                usesPatterns ? "    private static final Map<String, RgxGen> PATTERNS = new ConcurrentHashMap<>();\n" : "",
+                usesPatterns ? """
+
+                            public static String matching(String regex) {
+                                return PATTERNS.computeIfAbsent(regex, RgxGen::new).generate();
+                            }
+                        """ : "");
+    }
+
+    private String printSimulation(Collection<String> classNames) {
+        String scenarios = classNames.stream()
+                .map(className -> "            " + className + "Requests.SCENARIO.injectOpen(constantUsersPerSec(Values.USERS_PER_SECOND).during(Values.DURATION))")
+                .collect(Collectors.joining(",\n"));
+        return """
+                import io.gatling.javaapi.core.Simulation;
+
+                import static io.gatling.javaapi.core.CoreDsl.*;
+                import static io.gatling.javaapi.http.HttpDsl.*;
+
+                /**
+                 * Runs the scenarios of all controllers in parallel against {@code -DbaseUrl} (default http://localhost:8080).
+                 */
+                public class ApiSimulation extends Simulation {
+                    {
+                        setUp(
+                %s
+                        ).protocols(http.baseUrl(Values.BASE_URL).acceptHeader("application/json"));
+                    }
+                }
+                """.formatted(scenarios);
+    }
+
+    @SneakyThrows
+    private void writeFile(String className, String body) {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(className + ".java"), "package " + packageName + ";\n\n" + body);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+import model.types.Field;
+
+import java.io.Serializable;
+
+/**
+ * Links a single item endpoint to the endpoint loading many items at once.
+ *
+ * @param idsVariable the list of ids of the batch endpoint or {@code null} if the ids are sent as body
+ */
+public record Batch(Endpoint endpoint, Field idVariable, Field idsVariable, String idField, int window, int maxBatchSize) implements Serializable {
+}
@@ -0,0 +1,27 @@
+package model;
+
+public enum BinaryFormat {
+    CBOR("application/cbor"), MSGPACK("application/x-msgpack");
+
+    private final String mediaType;
+
+    BinaryFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static BinaryFormat of(String mediaType) {
+        for (BinaryFormat format : values()) {
+            if (mediaType.startsWith(format.mediaType)) {
+                return format;
+            }
+        }
+        if (mediaType.startsWith("application/msgpack")) {
+            return MSGPACK;
+        }
+        return null;
+    }
+}
@@ -7,13 +7,17 @@ import model.types.Field;
 import model.types.Type;
 import org.springframework.http.HttpMethod;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 @Data
 @RequiredArgsConstructor
-public class Endpoint {
+public class Endpoint implements Serializable {
+     private static final long serialVersionUID = 1L;
+
      @NonNull
      private String className;
      @NonNull
@@ -25,6 +29,20 @@ public class Endpoint {
      private List<Field> urlArgs = new ArrayList<>();
      private Type body = null;
      private List<Field> params = new ArrayList<>();
+     private QueryCache cache = null;
+     private QueryHints queryHints = null;
+     private Batch batch = null;
+     private StreamFormat streamFormat = null;
+     private List<String> produces = new ArrayList<>();
+     private List<String> consumes = new ArrayList<>();
+     /**
+      * Minimum size in bytes of responses which are decoded in a worker, null if the endpoint is never offloaded.
+      */
+     private Integer offloadThreshold = null;
+     /**
+      * Queries of other urls or controllers updated optimistically by this mutation, as {@code Controller.method}.
+      */
+     private List<String> optimisticQueries = new ArrayList<>();
 
 
      public List<Field> getAllVariables() {
@@ -34,6 +52,30 @@ public class Endpoint {
           return params.stream().sorted(Comparator.comparing(Field::isRequired, Boolean::compareTo).reversed().thenComparing(Field::getName)).toList();
      }
 
+     /**
+      * @return true if the response may be encoded in a binary format, JSON is still accepted as fallback
+      */
+     public boolean hasBinaryResponse() {
+          return produces.stream().anyMatch(mediaType -> BinaryFormat.of(mediaType) != null);
+     }
+
+     /**
+      * @return true if the response is requested as array buffer and decoded by the generated client
+      */
+     public boolean hasRawResponse() {
+          return hasBinaryResponse() || offloadThreshold != null;
+     }
+
+     /**
+      * @return The binary format the body has to be sent in or null if JSON is accepted
+      */
+     public BinaryFormat getBinaryRequestFormat() {
+          if(consumes.isEmpty() || consumes.stream().anyMatch(mediaType -> mediaType.startsWith("application/json"))) {
+               return null;
+          }
+          return consumes.stream().map(BinaryFormat::of).filter(Objects::nonNull).findFirst().orElse(null);
+     }
+
      @NonNull
      private Type returnType;
 }
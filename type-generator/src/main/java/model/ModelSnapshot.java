@@ -0,0 +1,160 @@
+package model;
+
+import lombok.Data;
+import model.types.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The parsed endpoints and named types of a module, which can be stored as build artifact and merged into the model of
+ * another module or an aggregator without parsing the bytecode again.
+ */
+@Data
+public class ModelSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String FILE_NAME = "type-model.bin";
+    public static final String ARTIFACT_TYPE = "bin";
+    public static final String CLASSIFIER = "type-model";
+
+    private static final int MAGIC = 0x54474d53;
+    /**
+     * Has to be increased whenever a field of a model class is added, removed or changed.
+     */
+    private static final int VERSION = 4;
+
+    /**
+     * Snapshots are resolved from repositories and caches, so only the model classes and the collections and values
+     * they consist of are deserialized.
+     */
+    public static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=1000;model.**;java.util.*;java.lang.*;org.springframework.http.HttpMethod;!*");
+
+    /**
+     * The parser options the snapshot was created with, a snapshot is only reused if they did not change.
+     */
+    private final String options;
+    private final List<Endpoint> endpoints;
+    private final Map<String, NamedType> namedObjects;
+
+    public static ModelSnapshot of(TypeContext context, List<Endpoint> endpoints) {
+        return new ModelSnapshot(options(context), new ArrayList<>(endpoints), new TreeMap<>(context.getNamedObjects()));
+    }
+
+    public static String options(TypeContext context) {
+        return context.getDefaultQueryCache() + ";" + context.getCacheableStaleTime() + ";" + context.validatesResponses() + ";" + context.getOffloadThreshold()
+                + ";" + context.isUseStringAsDate();
+    }
+
+    public boolean isCompatible(TypeContext context) {
+        return options.equals(options(context));
+    }
+
+    /**
+     * Adds the endpoints and named types to the given model. Types which are already known are kept, but need to be
+     * validated if either of both needs to be validated. References of the added endpoints and types are replaced by
+     * the known instances, such that every named type exists only once in the model.
+     */
+    public void mergeInto(TypeContext context, List<Endpoint> endpoints) {
+        List<NamedType> added = new ArrayList<>();
+        namedObjects.forEach((name, namedType) -> {
+            NamedType existing = context.getNamedObjects().putIfAbsent(name, namedType);
+            if (existing == null) {
+                added.add(namedType);
+            }
+            if (existing instanceof ObjectType o && namedType.needsValidation()) {
+                o.setNeedsValidation(true);
+            }
+            if (existing instanceof EnumType e && namedType.needsValidation()) {
+                e.setNeedsValidation(true);
+            }
+            if (existing instanceof UnionType u && namedType.needsValidation()) {
+                u.setNeedsValidation(true);
+            }
+        });
+
+        Map<String, NamedType> known = context.getNamedObjects();
+        added.forEach(namedType -> {
+            if (namedType instanceof ObjectType o) {
+                o.getFields().forEach(field -> field.setType(canonical(field.getType(), known)));
+            }
+            if (namedType instanceof UnionType u) {
+                u.getFields().forEach(field -> field.setType(canonical(field.getType(), known)));
+                u.getVariants().replaceAll(variant -> canonical(variant.type(), known) instanceof ObjectType o
+                        ? new UnionType.Variant(variant.tag(), o)
+                        : variant);
+            }
+        });
+        this.endpoints.forEach(endpoint -> {
+            endpoint.setReturnType(canonical(endpoint.getReturnType(), known));
+            if (endpoint.getBody() != null) {
+                endpoint.setBody(canonical(endpoint.getBody(), known));
+            }
+            endpoint.getUrlArgs().forEach(field -> field.setType(canonical(field.getType(), known)));
+            endpoint.getParams().forEach(field -> field.setType(canonical(field.getType(), known)));
+        });
+        endpoints.addAll(this.endpoints);
+    }
+
+    private static Type canonical(Type type, Map<String, NamedType> known) {
+        if (type instanceof NamedType namedType) {
+            return known.getOrDefault(namedType.getName(), namedType);
+        }
+        if (type instanceof ArrayType arr) {
+            arr.setSubType(canonical(arr.getSubType(), known));
+        }
+        if (type instanceof MapType map) {
+            map.setKeySubType(canonical(map.getKeySubType(), known));
+            map.setValueSubType(canonical(map.getValueSubType(), known));
+        }
+        return type;
+    }
+
+    public void write(File file) {
+        file.getParentFile().mkdirs();
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeObject(this);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write model snapshot " + file, e);
+        }
+    }
+
+    public static ModelSnapshot read(File file) {
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new FileInputStream(file)))) {
+            in.setObjectInputFilter(FILTER);
+            if (in.readInt() != MAGIC) {
+                throw new RuntimeException(file + " is not a model snapshot");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new RuntimeException("Model snapshot " + file + " has version " + version + ", expected " + VERSION);
+            }
+            return (ModelSnapshot) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new RuntimeException("Could not read model snapshot " + file + ", it has to be regenerated", e);
+        }
+    }
+
+    /**
+     * @return true if the snapshot exists and is newer than every file in the given directory
+     */
+    public static boolean isUpToDate(File snapshot, File classesDir) {
+        return snapshot.isFile() && newestModification(classesDir) <= snapshot.lastModified();
+    }
+
+    private static long newestModification(File file) {
+        if (!file.isDirectory()) {
+            return file.lastModified();
+        }
+        long newest = file.lastModified();
+        for (File child : Objects.requireNonNull(file.listFiles())) {
+            newest = Math.max(newest, newestModification(child));
+        }
+        return newest;
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.http.HttpMethod;
 @EqualsAndHashCode(callSuper = true)
 @ToString(callSuper = true)
 public class PagedEndpoint extends Endpoint {
+     private static final long serialVersionUID = 1L;
 
      public PagedEndpoint(String className, String name, String url, HttpMethod httpMethod, Type returnType) {
           super(className, name, url, httpMethod, returnType);
@@ -19,4 +20,21 @@ public class PagedEndpoint extends Endpoint {
      private Field pageVariable;
 
      private Field pageSizeVariable;
+
+     private Field cursorVariable;
+
+     private Field nextCursorField;
+
+     private Field previousCursorField;
+
+     /**
+      * The maximum number of pages kept by an infinite query, 0 keeps all pages
+      */
+     private int maxPages;
+
+     private boolean bidirectional;
+
+     public boolean isCursorPaged() {
+          return cursorVariable != null;
+     }
 }
@@ -0,0 +1,6 @@
+package model;
+
+import java.io.Serializable;
+
+public record QueryCache(boolean enabled, long ttl, int maxEntries) implements Serializable {
+}
@@ -0,0 +1,6 @@
+package model;
+
+import java.io.Serializable;
+
+public record QueryHints(long staleTime, long gcTime, boolean refetchOnWindowFocus, boolean structuralSharing) implements Serializable {
+}
@@ -0,0 +1,12 @@
+package model;
+
+public enum StreamFormat {
+    NDJSON, SSE;
+
+    public String toTypeScript() {
+        return switch (this) {
+            case NDJSON -> "'ndjson'";
+            case SSE -> "'sse'";
+        };
+    }
+}
@@ -5,16 +5,37 @@ import javassist.ClassPool;
 import lombok.Data;
 import model.types.NamedType;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Data
 public class TypeContext {
     private final ClassPool classPool;
 
-    private final Map<String, NamedType> namedObjects = new HashMap<>();
+    /**
+     * Sorted by name, such that the output does not depend on the order the types were parsed in
+     */
+    private final Map<String, NamedType> namedObjects = new TreeMap<>();
 
-    private final Map<String, TypeScriptFile> namedObjectFiles = new HashMap<>();
+    private final Map<String, TypeScriptFile> namedObjectFiles = new TreeMap<>();
 
     private final boolean useStringAsDate;
+
+    private QueryCache defaultQueryCache = new QueryCache(false, 30000, 100);
+
+    private long cacheableStaleTime = -1;
+
+    private double responseValidationRate = 0;
+
+    private boolean responseValidationDevOnly = false;
+
+    private boolean conditionalRequests = false;
+
+    private int etagMaxEntries = 500;
+
+    private int offloadThreshold = 262144;
+
+    public boolean validatesResponses() {
+        return responseValidationRate > 0 || responseValidationDevOnly;
+    }
 }
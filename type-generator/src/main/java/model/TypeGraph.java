@@ -0,0 +1,143 @@
+package model;
+
+import model.types.*;
+
+import java.util.*;
+
+/**
+ * The graph of references between named types. Types which (indirectly) reference themselves are grouped into the same
+ * strongly connected component, such that it can be decided which references close a cycle.
+ */
+public class TypeGraph {
+    private final Map<String, NamedType> types;
+    private final Map<String, Integer> components = new HashMap<>();
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Map<String, Integer> lowLink = new HashMap<>();
+    private final Deque<String> stack = new ArrayDeque<>();
+    private final Set<String> cyclic = new HashSet<>();
+    private final Map<String, Integer> depths = new HashMap<>();
+
+    public TypeGraph(Map<String, NamedType> types) {
+        this.types = types;
+        types.keySet().forEach(name -> {
+            if (!index.containsKey(name)) {
+                connect(name);
+            }
+        });
+    }
+
+    /**
+     * @return true if the reference from one type to the other is part of a cycle
+     */
+    public boolean isCyclic(NamedType from, NamedType to) {
+        return Objects.equals(components.get(from.getName()), components.get(to.getName()));
+    }
+
+    /**
+     * @return true if the type references itself directly or through other types
+     */
+    public boolean isCyclic(NamedType type) {
+        return cyclic.contains(type.getName());
+    }
+
+    /**
+     * @return The named types reachable from the given ones, including themselves
+     */
+    public Set<String> reachable(Collection<String> roots) {
+        Set<String> reachable = new TreeSet<>();
+        Deque<String> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            String name = queue.pop();
+            if (types.containsKey(name) && reachable.add(name)) {
+                queue.addAll(successors(name));
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return The length of the longest chain of references starting at the type, references between types of the
+     * same cycle are not followed
+     */
+    public int depth(String name) {
+        Integer known = depths.get(name);
+        if (known != null) {
+            return known;
+        }
+
+        int depth = 0;
+        for (String successor : successors(name)) {
+            if (types.containsKey(successor) && !components.get(successor).equals(components.get(name))) {
+                depth = Math.max(depth, depth(successor));
+            }
+        }
+        depths.put(name, depth + 1);
+        return depth + 1;
+    }
+
+    public static Set<String> references(Type t) {
+        Set<String> references = new LinkedHashSet<>();
+        addReferences(t, references);
+        return references;
+    }
+
+    private static void addReferences(Type t, Set<String> references) {
+        if (t instanceof NamedType o) {
+            references.add(o.getName());
+        }
+
+        if (t instanceof ArrayType arr) {
+            addReferences(arr.getSubType(), references);
+        }
+
+        if (t instanceof MapType map) {
+            addReferences(map.getKeySubType(), references);
+            addReferences(map.getValueSubType(), references);
+        }
+    }
+
+    private Set<String> successors(String name) {
+        Set<String> successors = new LinkedHashSet<>();
+        if (types.get(name) instanceof ObjectType o) {
+            o.getFields().forEach(field -> addReferences(field.getType(), successors));
+        }
+        if (types.get(name) instanceof UnionType u) {
+            u.getVariants().forEach(variant -> successors.add(variant.type().getName()));
+        }
+        return successors;
+    }
+
+    private void connect(String name) {
+        index.put(name, index.size());
+        lowLink.put(name, index.get(name));
+        stack.push(name);
+
+        Set<String> successors = successors(name);
+        for (String successor : successors) {
+            if (!types.containsKey(successor)) {
+                continue;
+            }
+            if (!index.containsKey(successor)) {
+                connect(successor);
+                lowLink.put(name, Math.min(lowLink.get(name), lowLink.get(successor)));
+            } else if (stack.contains(successor)) {
+                lowLink.put(name, Math.min(lowLink.get(name), index.get(successor)));
+            }
+        }
+
+        if (lowLink.get(name).equals(index.get(name))) {
+            int component = components.size();
+            List<String> members = new ArrayList<>();
+            String member;
+            do {
+                member = stack.pop();
+                members.add(member);
+                components.put(member, component);
+            } while (!member.equals(name));
+
+            if (members.size() > 1 || successors.contains(name)) {
+                cyclic.addAll(members);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package model.config;
+
+public enum BudgetViolation {
+    Warn, Fail
+}
@@ -1,5 +1,5 @@
 package model.config;
 
 public enum FrontendAPI {
-    ReactQuery, Angular
+    ReactQuery, Angular, Fetch
 }
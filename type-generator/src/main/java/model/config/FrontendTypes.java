@@ -1,5 +1,5 @@
 package model.config;
 
 public enum FrontendTypes {
-    Typescript, Zod
+    Typescript, Zod, Validator
 }
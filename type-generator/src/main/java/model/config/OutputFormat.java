@@ -0,0 +1,10 @@
+package model.config;
+
+public enum OutputFormat {
+    TypeScript,
+    /**
+     * Only the plain types are emitted as {@code .js} modules with {@code .d.ts} declarations, everything else stays
+     * TypeScript.
+     */
+    TypeDeclarations
+}
@@ -0,0 +1,5 @@
+package model.config;
+
+public enum OutputLayout {
+    PerType, Package, Controller, Single
+}
@@ -5,6 +5,8 @@ import lombok.NonNull;
 
 @Data
 public class ArrayType implements Type {
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private Type subType;
 }
@@ -9,8 +9,11 @@ import java.util.List;
 @Data
 
 public class EnumType implements NamedType {
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private String name;
+    private String packageName;
     private List<String> values = new ArrayList<>();
 
     private boolean needsValidation;
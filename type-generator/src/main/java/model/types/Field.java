@@ -4,11 +4,14 @@ import lombok.Data;
 import lombok.NonNull;
 import model.validation.Validation;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
-public class Field {
+public class Field implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private String name;
     private boolean required = true;
@@ -16,4 +19,8 @@ public class Field {
     private Type type;
 
     private List<Validation> validations = new ArrayList<>();
+
+    private boolean nextCursor;
+
+    private boolean previousCursor;
 }
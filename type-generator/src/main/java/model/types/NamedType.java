@@ -3,4 +3,6 @@ package model.types;
 public interface NamedType extends Type {
 
     String getName();
+
+    String getPackageName();
 }
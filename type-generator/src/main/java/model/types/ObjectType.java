@@ -7,8 +7,11 @@ import java.util.List;
 
 @Data
 public class ObjectType implements NamedType {
+    private static final long serialVersionUID = 1L;
+
     @NonNull
     private String name;
+    private String packageName;
     @ToString.Exclude
     private List<Field> fields = new ArrayList<>();
 
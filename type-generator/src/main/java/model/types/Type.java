@@ -1,6 +1,8 @@
 package model.types;
 
-public interface Type {
+import java.io.Serializable;
+
+public interface Type extends Serializable {
     default boolean needsValidation() {
         return false;
     }
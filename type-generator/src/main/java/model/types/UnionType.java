@@ -0,0 +1,40 @@
+package model.types;
+
+import lombok.Data;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A polymorphic base type, serialized as one of its variants with the tag of the variant in the discriminator property.
+ */
+@Data
+public class UnionType implements NamedType {
+    private static final long serialVersionUID = 1L;
+
+    @NonNull
+    private String name;
+    private String packageName;
+    @NonNull
+    private String discriminator;
+    /**
+     * The fields declared in the base type, which are inherited by every variant.
+     */
+    @ToString.Exclude
+    private List<Field> fields = new ArrayList<>();
+    @ToString.Exclude
+    private List<Variant> variants = new ArrayList<>();
+
+    private boolean needsValidation;
+
+    @Override
+    public boolean needsValidation() {
+        return needsValidation;
+    }
+
+    public record Variant(String tag, ObjectType type) implements Serializable {
+    }
+}
@@ -1,6 +1,8 @@
 package model.validation;
 
-public interface Validation {
+import java.io.Serializable;
+
+public interface Validation extends Serializable {
 
     String message();
 
@@ -0,0 +1,67 @@
+package processor;
+
+import javassist.ClassPath;
+import javassist.NotFoundException;
+
+import javax.annotation.processing.Filer;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Reads class files through the compiler, i.e. from the classes of the current compilation and the compile classpath,
+ * which differs from the classpath the processor itself is loaded from.
+ */
+class FilerClassPath implements ClassPath {
+    private static final List<StandardLocation> LOCATIONS = List.of(StandardLocation.CLASS_OUTPUT, StandardLocation.CLASS_PATH);
+
+    private final Filer filer;
+
+    FilerClassPath(Filer filer) {
+        this.filer = filer;
+    }
+
+    @Override
+    public InputStream openClassfile(String classname) throws NotFoundException {
+        FileObject file = resource(classname);
+        if (file == null) {
+            throw new NotFoundException(classname);
+        }
+        try {
+            return file.openInputStream();
+        } catch (IOException e) {
+            throw new NotFoundException(classname, e);
+        }
+    }
+
+    @Override
+    public URL find(String classname) {
+        FileObject file = resource(classname);
+        try {
+            return file == null ? null : file.toUri().toURL();
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    private FileObject resource(String classname) {
+        int dot = classname.lastIndexOf('.');
+        String packageName = dot < 0 ? "" : classname.substring(0, dot);
+        String fileName = classname.substring(dot + 1) + ".class";
+        for (StandardLocation location : LOCATIONS) {
+            try {
+                FileObject file = filer.getResource(location, packageName, fileName);
+                // output locations also return files which do not exist
+                file.openInputStream().close();
+                return file;
+            } catch (IOException | IllegalArgumentException e) {
+                // not in this location
+            }
+        }
+        return null;
+    }
+}
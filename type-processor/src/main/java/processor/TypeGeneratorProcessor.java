@@ -0,0 +1,247 @@
+package processor;
+
+import backend.spring.SpringEndpointParser;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import frontend.OutputWriter;
+import javassist.ClassPool;
+import javassist.NotFoundException;
+import model.Endpoint;
+import model.ModelSnapshot;
+import model.QueryCache;
+import model.TypeContext;
+import model.config.FrontendAPI;
+import model.config.FrontendTypes;
+import model.config.OutputFormat;
+import model.config.OutputLayout;
+import model.types.NamedType;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates the clients as part of the compilation. The controllers and changed classes are collected from the
+ * processed elements, once javac has written their class files they are parsed like by the maven plugin. The model of
+ * every controller is kept in a state file next to the class output, so an incremental compilation only parses the
+ * controllers which were compiled again or reference a compiled type, the others are taken from the state.
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions({
+        TypeGeneratorProcessor.OUTPUT_DIRECTORY,
+        TypeGeneratorProcessor.FRONTEND_API,
+        TypeGeneratorProcessor.FRONTEND_TYPES,
+        TypeGeneratorProcessor.USE_STRING_AS_DATE,
+        TypeGeneratorProcessor.CACHE_QUERIES,
+        TypeGeneratorProcessor.CACHE_TTL,
+        TypeGeneratorProcessor.CACHE_MAX_ENTRIES,
+        TypeGeneratorProcessor.RESPONSE_VALIDATION_RATE,
+        TypeGeneratorProcessor.RESPONSE_VALIDATION_DEV_ONLY,
+        TypeGeneratorProcessor.CONDITIONAL_REQUESTS,
+        TypeGeneratorProcessor.OFFLOAD_THRESHOLD,
+        TypeGeneratorProcessor.OUTPUT_LAYOUT,
+        TypeGeneratorProcessor.OUTPUT_FORMAT,
+})
+public class TypeGeneratorProcessor extends AbstractProcessor {
+    static final String OUTPUT_DIRECTORY = "typeGenerator.outputDirectory";
+    static final String FRONTEND_API = "typeGenerator.frontendAPI";
+    static final String FRONTEND_TYPES = "typeGenerator.frontendTypes";
+    static final String USE_STRING_AS_DATE = "typeGenerator.useStringAsDate";
+    static final String CACHE_QUERIES = "typeGenerator.cacheQueries";
+    static final String CACHE_TTL = "typeGenerator.cacheTtl";
+    static final String CACHE_MAX_ENTRIES = "typeGenerator.cacheMaxEntries";
+    static final String RESPONSE_VALIDATION_RATE = "typeGenerator.responseValidationRate";
+    static final String RESPONSE_VALIDATION_DEV_ONLY = "typeGenerator.responseValidationDevOnly";
+    static final String CONDITIONAL_REQUESTS = "typeGenerator.conditionalRequests";
+    static final String OFFLOAD_THRESHOLD = "typeGenerator.offloadThreshold";
+    static final String OUTPUT_LAYOUT = "typeGenerator.outputLayout";
+    static final String OUTPUT_FORMAT = "typeGenerator.outputFormat";
+
+    private static final String REST_CONTROLLER = "org.springframework.web.bind.annotation.RestController";
+    private static final String STATE_FILE = "type-processor-state.bin";
+
+    /**
+     * The compiled controllers by their qualified name, mapped to their binary name
+     */
+    private final Map<String, String> controllers = new TreeMap<>();
+    /**
+     * The compiled classes named like the named types parsed from them
+     */
+    private final Set<String> compiled = new HashSet<>();
+    private File stateFile;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        if (processingEnv.getOptions().get(OUTPUT_DIRECTORY) == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Option " + OUTPUT_DIRECTORY + " is not set, no types are generated");
+            return;
+        }
+
+        try {
+            Path classOutput = Paths.get(processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", STATE_FILE).toUri()).getParent();
+            stateFile = classOutput.resolveSibling(STATE_FILE).toFile();
+            JavacTask.instance(processingEnv).addTaskListener(new TaskListener() {
+                @Override
+                public void finished(TaskEvent event) {
+                    if (event.getKind() == TaskEvent.Kind.COMPILATION) {
+                        generate();
+                    }
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            stateFile = null;
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Types can only be generated by javac writing class files: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (stateFile != null) {
+            roundEnv.getRootElements().forEach(this::collect);
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement type)) {
+            return;
+        }
+
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        compiled.add(qualifiedName(packageName, simpleName.replace("$", "")));
+        if (isRestController(type)) {
+            controllers.put(type.getQualifiedName().toString(), binaryName);
+        }
+        type.getEnclosedElements().forEach(this::collect);
+    }
+
+    /**
+     * Parses the changed controllers once their class files are written and generates the clients of all controllers.
+     */
+    private void generate() {
+        if (controllers.isEmpty() && compiled.isEmpty()) {
+            return;
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        // the parser casts the annotations javassist creates with the context class loader to the ones it was loaded with
+        Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+        try {
+            ClassPool classPool = new ClassPool(true);
+            classPool.insertClassPath(new FilerClassPath(processingEnv.getFiler()));
+
+            Map<String, ModelSnapshot> state = readState();
+            TypeContext options = context(classPool);
+            Map<String, String> changed = new TreeMap<>(controllers);
+            for (Map.Entry<String, ModelSnapshot> entry : state.entrySet()) {
+                TypeElement type = processingEnv.getElementUtils().getTypeElement(entry.getKey());
+                if (type == null || !isRestController(type)) {
+                    changed.put(entry.getKey(), null);
+                } else if (!entry.getValue().isCompatible(options) || entry.getValue().getNamedObjects().values().stream()
+                        .anyMatch(namedType -> compiled.contains(qualifiedName(namedType)))) {
+                    changed.putIfAbsent(entry.getKey(), processingEnv.getElementUtils().getBinaryName(type).toString());
+                }
+            }
+
+            for (Map.Entry<String, String> controller : changed.entrySet()) {
+                if (controller.getValue() == null) {
+                    state.remove(controller.getKey());
+                    continue;
+                }
+                TypeContext context = context(classPool);
+                List<Endpoint> endpoints = new SpringEndpointParser(context).parseClass(classPool.get(controller.getValue()));
+                state.put(controller.getKey(), ModelSnapshot.of(context, endpoints));
+            }
+
+            TypeContext context = context(classPool);
+            List<Endpoint> endpoints = new ArrayList<>();
+            state.values().forEach(snapshot -> snapshot.mergeInto(context, endpoints));
+            OutputWriter outputWriter = new OutputWriter(context,
+                    FrontendTypes.valueOf(option(FRONTEND_TYPES, FrontendTypes.Typescript.name())),
+                    FrontendAPI.valueOf(option(FRONTEND_API, FrontendAPI.ReactQuery.name())),
+                    OutputLayout.valueOf(option(OUTPUT_LAYOUT, OutputLayout.PerType.name())),
+                    OutputFormat.valueOf(option(OUTPUT_FORMAT, OutputFormat.TypeScript.name())));
+            for (String dir : option(OUTPUT_DIRECTORY, "").split(",")) {
+                outputWriter.write(OutputWriter.dirName(dir), endpoints, null);
+            }
+            writeState(state);
+        } catch (NotFoundException | IOException | RuntimeException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not generate types: " + e);
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+            controllers.clear();
+            compiled.clear();
+        }
+    }
+
+    private TypeContext context(ClassPool classPool) {
+        TypeContext context = new TypeContext(classPool, Boolean.parseBoolean(option(USE_STRING_AS_DATE, "false")));
+        context.setDefaultQueryCache(new QueryCache(Boolean.parseBoolean(option(CACHE_QUERIES, "false")),
+                Long.parseLong(option(CACHE_TTL, "30000")),
+                Integer.parseInt(option(CACHE_MAX_ENTRIES, "100"))));
+        context.setResponseValidationRate(Double.parseDouble(option(RESPONSE_VALIDATION_RATE, "0")));
+        context.setResponseValidationDevOnly(Boolean.parseBoolean(option(RESPONSE_VALIDATION_DEV_ONLY, "false")));
+        context.setConditionalRequests(Boolean.parseBoolean(option(CONDITIONAL_REQUESTS, "false")));
+        context.setOffloadThreshold(Integer.parseInt(option(OFFLOAD_THRESHOLD, "262144")));
+        return context;
+    }
+
+    private String option(String name, String defaultValue) {
+        return processingEnv.getOptions().getOrDefault(name, defaultValue);
+    }
+
+    private static boolean isRestController(TypeElement type) {
+        return type.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(REST_CONTROLLER));
+    }
+
+    private static String qualifiedName(NamedType namedType) {
+        return qualifiedName(namedType.getPackageName() == null ? "" : namedType.getPackageName(), namedType.getName());
+    }
+
+    private static String qualifiedName(String packageName, String name) {
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    /**
+     * @return The models of the controllers by their qualified name, empty if there is no state or it can not be read
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, ModelSnapshot> readState() {
+        if (!stateFile.isFile()) {
+            return new TreeMap<>();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new FileInputStream(stateFile)))) {
+            in.setObjectInputFilter(ModelSnapshot.FILTER);
+            return (Map<String, ModelSnapshot>) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not read " + stateFile + ", only the compiled controllers are generated until the next full build");
+            return new TreeMap<>();
+        }
+    }
+
+    private void writeState(Map<String, ModelSnapshot> state) throws IOException {
+        stateFile.getParentFile().mkdirs();
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(stateFile)))) {
+            out.writeObject(new TreeMap<>(state));
+        }
+    }
+}